@@ -0,0 +1,218 @@
+package com.face4j.facebook.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.util.JSONToObjectTransformer;
+import com.face4j.facebook.util.Parameters;
+
+/**
+ * Makes the requests with java.net.http.HttpClient in HTTP/2 mode. Concurrent calls to graph.facebook.com are
+ * multiplexed as streams over one TLS connection instead of each holding a pooled connection of its own, so a slow
+ * response doesn't hold up the others and there are far fewer handshakes. Servers that don't speak HTTP/2 are called
+ * over HTTP/1.1 with the client's own connection pool. No third party http library is involved in the request. <br>
+ *
+ * The connect timeout, read timeout, compression and proxy host of the {@link TransportConfig} apply. The read timeout
+ * is the time allowed until the response headers arrive. Pool sizes, socket options and keep-alive are managed by the
+ * client (see the jdk.httpclient.* system properties). <br>
+ *
+ * Needs Java 11 or later: this class is compiled from src-java11, see
+ * {@link com.face4j.facebook.enums.HttpClientType#JDK_HTTP_CLIENT}.
+ */
+public class JDKAPICaller implements StreamingAPICallerInterface {
+
+	private static final String CHARSET = "UTF-8";
+
+	private final TransportConfig config;
+	private final HttpClient client;
+	private final TransferStats transferStats = new TransferStats();
+
+	public JDKAPICaller() {
+		this(new TransportConfig());
+	}
+
+	/**
+	 * @param config Copied, later changes to it have no effect
+	 */
+	public JDKAPICaller(TransportConfig config) {
+		this.config = new TransportConfig(config);
+		HttpClient.Builder builder = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).followRedirects(
+				HttpClient.Redirect.NORMAL);
+		if (config.getConnectTimeout() > 0) {
+			builder.connectTimeout(Duration.ofMillis(config.getConnectTimeout()));
+		}
+		if (config.getProxyHost() != null) {
+			builder.proxy(ProxySelector.of(InetSocketAddress.createUnresolved(config.getProxyHost(),
+					config.getProxyPort() < 0 ? 80 : config.getProxyPort())));
+		}
+		this.client = builder.build();
+	}
+
+	/**
+	 * Response body bytes read by this caller, before and after decompression
+	 */
+	public TransferStats getTransferStats() {
+		return transferStats;
+	}
+
+	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return read(send(newRequest("GET", url, nameValuePairs)));
+	}
+
+	/**
+	 * Same as {@link #getData(String, NameValuePair[])} but the response body is streamed into the handler instead of
+	 * being read into a String first
+	 */
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException {
+		HttpResponse<InputStream> response = send(newRequest("GET", url, nameValuePairs));
+		InputStream inputStream = response.body();
+		try {
+			checkStatus(response);
+			inputStream = decode(response, inputStream);
+			return handler.handle(new InputStreamReader(inputStream, getCharset(response)));
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while calling facebook!", e);
+		} finally {
+			close(inputStream);
+		}
+	}
+
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return read(send(newRequest("POST", url, nameValuePairs)));
+	}
+
+	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return read(send(newRequest("DELETE", url, nameValuePairs)));
+	}
+
+	HttpClient getClient() {
+		return client;
+	}
+
+	/**
+	 * POST parameters go in the body, the others in the query string
+	 */
+	HttpRequest newRequest(String method, String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String params = Parameters.encode(nameValuePairs);
+		boolean post = "POST".equals(method);
+		if (!post && params.length() > 0) {
+			url += (url.indexOf('?') < 0 ? "?" : "&") + params;
+		}
+
+		try {
+			HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url));
+			if (config.getReadTimeout() > 0) {
+				builder.timeout(Duration.ofMillis(config.getReadTimeout()));
+			}
+			if (config.isCompression()) {
+				builder.header("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
+			}
+			if (post) {
+				builder.header("Content-Type", "application/x-www-form-urlencoded; charset=" + CHARSET);
+				builder.POST(HttpRequest.BodyPublishers.ofByteArray(params.getBytes(CHARSET)));
+			} else {
+				builder.method(method, HttpRequest.BodyPublishers.noBody());
+			}
+			return builder.build();
+		} catch (IllegalArgumentException e) {
+			throw new FacebookException("Invalid url " + url, e);
+		} catch (UnsupportedEncodingException e) {
+			throw new FacebookException("Unsupported encoding! Please use some other encoding", e);
+		}
+	}
+
+	private HttpResponse<InputStream> send(HttpRequest request) throws FacebookException {
+		try {
+			return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while calling facebook!", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FacebookException("Interrupted while waiting for facebook!", e);
+		}
+	}
+
+	/**
+	 * Reads the body to the end, which frees the stream or connection for the next request
+	 */
+	private String read(HttpResponse<InputStream> response) throws FacebookException {
+		try {
+			checkStatus(response);
+			return new String(ContentEncoding.readFully(decode(response, response.body())), getCharset(response));
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while calling facebook!", e);
+		} finally {
+			close(response.body());
+		}
+	}
+
+	/**
+	 * Same as {@link #read(HttpResponse)} for a body the async caller has already received in full
+	 */
+	String readBytes(HttpResponse<byte[]> response) throws FacebookException {
+		try {
+			byte[] body = ContentEncoding.decode(response.body(), getContentEncoding(response), transferStats);
+			String text = new String(body, getCharset(response));
+			if (response.statusCode() != 200) {
+				throw new FacebookException(JSONToObjectTransformer.getError(text, response.statusCode()));
+			}
+			return text;
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while calling facebook!", e);
+		}
+	}
+
+	/**
+	 * Throws the facebook error if the status is anything other than 200
+	 */
+	private void checkStatus(HttpResponse<InputStream> response) throws IOException, FacebookException {
+		if (response.statusCode() != 200) {
+			String error = new String(ContentEncoding.readFully(decode(response, response.body())), getCharset(response));
+			throw new FacebookException(JSONToObjectTransformer.getError(error, response.statusCode()));
+		}
+	}
+
+	private InputStream decode(HttpResponse<?> response, InputStream inputStream) throws IOException {
+		return ContentEncoding.decode(inputStream, getContentEncoding(response), transferStats);
+	}
+
+	private static String getContentEncoding(HttpResponse<?> response) {
+		return response.headers().firstValue("Content-Encoding").orElse(null);
+	}
+
+	private static String getCharset(HttpResponse<?> response) {
+		String contentType = response.headers().firstValue("Content-Type").orElse(null);
+		if (contentType != null) {
+			for (String param : contentType.split(";")) {
+				param = param.trim();
+				if (param.regionMatches(true, 0, "charset=", 0, 8)) {
+					return param.substring(8).replace("\"", "");
+				}
+			}
+		}
+		return CHARSET;
+	}
+
+	private static void close(InputStream inputStream) {
+		if (inputStream != null) {
+			try {
+				inputStream.close();
+			} catch (IOException e) {
+				// nothing more to read
+			}
+		}
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.face4j.facebook.http;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Future based variant of {@link JDKAPICaller} on top of HttpClient.sendAsync. No thread waits on a request: the
+ * requests in flight are multiplexed over the client's HTTP/2 connections and driven by its own selector, the futures
+ * are completed as the responses come in. <br>
+ *
+ * Cancelling a future cancels its exchange, which resets the HTTP/2 stream on Java 16 and later. <br>
+ *
+ * Needs Java 11 or later, see {@link com.face4j.facebook.enums.HttpClientType#JDK_HTTP_CLIENT}.
+ */
+public class JDKAsyncAPICaller implements AsyncAPICallerInterface {
+
+	private final JDKAPICaller caller;
+
+	public JDKAsyncAPICaller() {
+		this(new TransportConfig());
+	}
+
+	/**
+	 * @param config Copied, later changes to it have no effect
+	 */
+	public JDKAsyncAPICaller(TransportConfig config) {
+		this.caller = new JDKAPICaller(config);
+	}
+
+	/**
+	 * Response body bytes read by this caller, before and after decompression
+	 */
+	public TransferStats getTransferStats() {
+		return caller.getTransferStats();
+	}
+
+	public Future<String> getData(String url, NameValuePair[] nameValuePairs) {
+		return sendAsync("GET", url, nameValuePairs);
+	}
+
+	public Future<String> postData(String url, NameValuePair[] nameValuePairs) {
+		return sendAsync("POST", url, nameValuePairs);
+	}
+
+	public Future<String> deleteData(String url, NameValuePair[] nameValuePairs) {
+		return sendAsync("DELETE", url, nameValuePairs);
+	}
+
+	private Future<String> sendAsync(String method, String url, NameValuePair[] nameValuePairs) {
+		final CompletableFuture<HttpResponse<byte[]>> exchange;
+		try {
+			exchange = caller.getClient().sendAsync(caller.newRequest(method, url, nameValuePairs),
+					HttpResponse.BodyHandlers.ofByteArray());
+		} catch (FacebookException e) {
+			APIResponseFuture future = new APIResponseFuture();
+			future.fail(e);
+			return future;
+		}
+
+		final APIResponseFuture future = new APIResponseFuture() {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				boolean cancelled = super.cancel(mayInterruptIfRunning);
+				if (cancelled) {
+					exchange.cancel(true);
+				}
+				return cancelled;
+			}
+		};
+		exchange.whenComplete(new BiConsumer<HttpResponse<byte[]>, Throwable>() {
+			public void accept(HttpResponse<byte[]> response, Throwable failure) {
+				if (failure != null) {
+					future.fail(toFacebookException(failure));
+					return;
+				}
+				try {
+					future.complete(caller.readBytes(response));
+				} catch (FacebookException e) {
+					future.fail(e);
+				}
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * The exchange failed without a response, e.g. the connection was refused or timed out
+	 */
+	private static FacebookException toFacebookException(Throwable failure) {
+		Throwable cause = (failure instanceof CompletionException && failure.getCause() != null) ? failure.getCause()
+				: failure;
+		if (cause instanceof FacebookException) {
+			return (FacebookException) cause;
+		}
+		String message = (cause instanceof IOException) ? "IO Exception while calling facebook!"
+				: "Exception while calling facebook!";
+		return new FacebookException(message, (cause instanceof Exception) ? (Exception) cause : new Exception(cause));
+	}
+
+}
@@ -0,0 +1,211 @@
+package com.face4j.facebook;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.entity.Page;
+import com.face4j.facebook.entity.Post;
+import com.face4j.facebook.entity.User;
+import com.face4j.facebook.entity.paging.Paging;
+import com.face4j.facebook.enums.ConnectionType;
+import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.util.Constants;
+import com.face4j.facebook.util.Endpoint;
+import com.face4j.facebook.util.JSONToObjectTransformer;
+import com.face4j.facebook.util.Parameters;
+
+/**
+ * Queues graph api calls and sends them to facebook as a single batch request. Obtain one with
+ * {@link Facebook#batch()}, queue the calls, then call {@link #execute()}. Each queued call hands back a
+ * {@link BatchResult} which holds that call's result (or error) once the batch has been executed. <br>
+ *
+ * Facebook accepts at most {@link #MAX_BATCH_SIZE} calls per request, larger batches are split into as many requests
+ * as needed. <br>
+ *
+ * A batch request is not thread safe and can be executed only once.
+ */
+public class BatchRequest {
+
+	/**
+	 * The maximum number of calls facebook accepts in one batch request
+	 */
+	public static final int MAX_BATCH_SIZE = 50;
+
+	private static final String BATCH = "batch";
+
+	private final Facebook facebook;
+	private final List<Operation<?>> operations = new ArrayList<Operation<?>>();
+	private boolean executed;
+
+	BatchRequest(Facebook facebook) {
+		this.facebook = facebook;
+	}
+
+	/**
+	 * Queues {@link Facebook#getUser(String)}
+	 */
+	public BatchResult<User> getUser(String fbId) {
+		return add(new Operation<User>("GET", fbId, null, User.class, false));
+	}
+
+	/**
+	 * Queues {@link Facebook#getPage(String)}
+	 */
+	public BatchResult<Page> getPage(String fbId) {
+		return add(new Operation<Page>("GET", fbId, null, Page.class, false));
+	}
+
+	/**
+	 * Queues {@link Facebook#getPost(String)}
+	 */
+	public BatchResult<Post> getPost(String postId) {
+		return add(new Operation<Post>("GET", postId, null, Post.class, false));
+	}
+
+	/**
+	 * Queues {@link Facebook#getConnections(String, ConnectionType, Class, Paging)}
+	 */
+	public <E> BatchResult<E> getConnections(String id, ConnectionType connectionType, Class<E> e, Paging paging) {
+		String relativeURL = Endpoint.CONNECTION.path(id, connectionType.getType());
+
+		if (paging != null) {
+			NameValuePair[] nameValuePairs = new NameValuePair[Paging.pagingElementCount(paging)];
+			Paging.addNameValuePairs(paging, nameValuePairs);
+			if (nameValuePairs.length > 0) {
+				relativeURL += "?" + Parameters.encode(nameValuePairs);
+			}
+		}
+
+		return add(new Operation<E>("GET", relativeURL, null, e, true));
+	}
+
+	/**
+	 * Queues {@link Facebook#like(String)}
+	 */
+	public BatchResult<Boolean> like(String objectId) {
+		return add(new Operation<Boolean>("POST", Endpoint.LIKES.path(objectId), null, Boolean.class, false));
+	}
+
+	/**
+	 * Queues {@link Facebook#comment(String, String)}
+	 */
+	public BatchResult<CommonReturnObject> comment(String message, String objectId) {
+		String body = Parameters.encode(new NameValuePair[] { new NameValuePair(Constants.MESSAGE, message) });
+		return add(new Operation<CommonReturnObject>("POST", Endpoint.COMMENTS.path(objectId), body,
+				CommonReturnObject.class, false));
+	}
+
+	/**
+	 * Queues {@link Facebook#delete(String)}
+	 */
+	public BatchResult<Boolean> delete(String id) {
+		return add(new Operation<Boolean>("DELETE", id, null, Boolean.class, false));
+	}
+
+	/**
+	 * @return The number of calls queued so far
+	 */
+	public int size() {
+		return operations.size();
+	}
+
+	/**
+	 * Sends all the queued calls to facebook. Errors of individual calls don't fail the batch, they are thrown from the
+	 * corresponding {@link BatchResult#get()}.
+	 *
+	 * @throws FacebookException If the batch request itself fails. The calls that were not sent get the same exception
+	 *           from their {@link BatchResult#get()}, those of the requests sent before it have their results.
+	 */
+	public void execute() throws FacebookException {
+		if (executed) {
+			throw new IllegalStateException("A batch request can be executed only once");
+		}
+		executed = true;
+
+		for (int from = 0; from < operations.size(); from += MAX_BATCH_SIZE) {
+			List<Operation<?>> chunk = operations.subList(from, Math.min(from + MAX_BATCH_SIZE, operations.size()));
+
+			NameValuePair[] nameValuePairs = { facebook.getNameValuePairAccessToken(),
+					new NameValuePair(BATCH, JSONToObjectTransformer.toJson(chunk)) };
+
+			BatchResponse[] batchResponses;
+			try {
+				String response = facebook.getCaller().postData(Endpoint.GRAPH.url(), nameValuePairs);
+				batchResponses = JSONToObjectTransformer.getObject(response, BatchResponse[].class);
+			} catch (FacebookException e) {
+				// the calls of this and the later requests were never made
+				for (Operation<?> operation : operations.subList(from, operations.size())) {
+					operation.result.setException(e);
+				}
+				throw e;
+			}
+
+			for (int i = 0; i < chunk.size(); i++) {
+				chunk.get(i).complete(batchResponses != null && i < batchResponses.length ? batchResponses[i] : null);
+			}
+		}
+	}
+
+	private <E> BatchResult<E> add(Operation<E> operation) {
+		if (executed) {
+			throw new IllegalStateException("The batch request has already been executed");
+		}
+		operations.add(operation);
+		return operation.result;
+	}
+
+	/**
+	 * A queued call. The non transient fields make up the json facebook expects for each call in the batch.
+	 */
+	private static class Operation<E> {
+
+		@SuppressWarnings("unused")
+		private String method;
+		@SuppressWarnings("unused")
+		private String relativeUrl;
+		@SuppressWarnings("unused")
+		private String body;
+
+		private transient Class<E> type;
+		private transient boolean connection;
+		private transient BatchResult<E> result = new BatchResult<E>();
+
+		Operation(String method, String relativeUrl, String body, Class<E> type, boolean connection) {
+			this.method = method;
+			this.relativeUrl = relativeUrl;
+			this.body = body;
+			this.type = type;
+			this.connection = connection;
+		}
+
+		@SuppressWarnings("unchecked")
+		void complete(BatchResponse response) {
+			if (response == null) {
+				// facebook sends null for calls that didn't complete in time
+				result.setException(new FacebookException("Facebook did not return a response for this call of the batch", null));
+				return;
+			}
+
+			try {
+				if (response.getCode() != 200) {
+					result.setException(new FacebookException(JSONToObjectTransformer.getError(response.getBody(), response.getCode())));
+				} else if (type == Boolean.class) {
+					result.setResult((E) Boolean.valueOf(response.getBody().trim()));
+				} else {
+					E e = JSONToObjectTransformer.getObject(response.getBody(), type);
+					if (connection) {
+						Facebook.touchPaging(e);
+					}
+					result.setResult(e);
+				}
+			} catch (FacebookException e) {
+				result.setException(e);
+			} catch (RuntimeException e) {
+				result.setException(new FacebookException("Error while converting the batch response: " + response.getBody(), e));
+			}
+		}
+	}
+
+}
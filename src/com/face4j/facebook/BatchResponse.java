@@ -0,0 +1,24 @@
+package com.face4j.facebook;
+
+import java.io.Serializable;
+
+/**
+ * One item of the array facebook returns for a batch request. The body is the json of the individual call, as a
+ * string.
+ */
+public class BatchResponse implements Serializable {
+
+	private static final long serialVersionUID = -4310729418052307366L;
+
+	private int code;
+	private String body;
+
+	public int getCode() {
+		return code;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.face4j.facebook;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Placeholder for the result of one call queued on a {@link BatchRequest}. It gets filled in when the batch is
+ * executed.
+ * 
+ * @param <E>
+ */
+public class BatchResult<E> {
+
+	private boolean executed;
+	private E result;
+	private FacebookException exception;
+
+	BatchResult() {
+		super();
+	}
+
+	/**
+	 * Returns the result of this call
+	 * 
+	 * @return
+	 * @throws FacebookException If facebook returned an error for this particular call
+	 * @throws IllegalStateException If the batch has not been executed yet
+	 */
+	public E get() throws FacebookException {
+		if (!executed) {
+			throw new IllegalStateException("The batch request has not been executed yet");
+		}
+		if (exception != null) {
+			throw exception;
+		}
+		return result;
+	}
+
+	public boolean isExecuted() {
+		return executed;
+	}
+
+	/**
+	 * @return true if the batch was executed and this call did not fail
+	 */
+	public boolean isSuccess() {
+		return executed && exception == null;
+	}
+
+	void setResult(E result) {
+		this.result = result;
+		this.executed = true;
+	}
+
+	void setException(FacebookException exception) {
+		this.exception = exception;
+		this.executed = true;
+	}
+
+}
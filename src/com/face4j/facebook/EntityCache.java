@@ -0,0 +1,42 @@
+package com.face4j.facebook;
+
+/**
+ * Keeps graph objects as they were converted from json, so that {@link Facebook} instances can hand out an object
+ * fetched earlier, possibly by another instance, without calling facebook again. <br>
+ *
+ * The keys are made by {@link Facebook}, from the type, the object's url, the fields asked for and the visibility
+ * scope: a SHA-256 digest of the access token, or nothing for types that are {@link #isShared(Class) shared}. The
+ * same object is returned to every caller that hits it, treat cached objects as read only. <br>
+ *
+ * Set an instance on {@link com.face4j.facebook.factory.FacebookFactory#setEntityCache(EntityCache)} to share it
+ * between the instances the factory creates. Implementations must be thread safe, see {@link MemoryEntityCache}.
+ */
+public interface EntityCache {
+
+	/**
+	 * @param type
+	 * @return true if objects of the type are cached, nothing is looked up or kept for other types
+	 */
+	public boolean isCached(Class<?> type);
+
+	/**
+	 * @param type
+	 * @return true if objects of the type look the same to every access token, e.g. pages, so that one copy serves
+	 *         all users. Otherwise objects are cached per access token.
+	 */
+	public boolean isShared(Class<?> type);
+
+	/**
+	 * @param key
+	 * @return The object, null if it isn't cached or has expired
+	 */
+	public Object get(String key);
+
+	/**
+	 * @param key
+	 * @param entity
+	 * @param weight The length of the json the object was converted from, a measure of the memory it takes
+	 */
+	public void put(String key, Object entity, int weight);
+
+}
@@ -1,19 +1,35 @@
 package com.face4j.facebook;
 
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.httpclient.NameValuePair;
 import org.apache.commons.lang.StringUtils;
 
 import com.face4j.facebook.criteria.ConnectionColumnCriteria;
+import com.face4j.facebook.entity.Counts;
 import com.face4j.facebook.entity.Page;
 import com.face4j.facebook.entity.Post;
 import com.face4j.facebook.entity.User;
@@ -23,11 +39,17 @@ import com.face4j.facebook.exception.FacebookException;
 import com.face4j.facebook.fql.FqlConnection;
 import com.face4j.facebook.fql.FqlPage;
 import com.face4j.facebook.fql.FqlPost;
+import com.face4j.facebook.fql.FqlRowHandler;
 import com.face4j.facebook.fql.FqlUser;
 import com.face4j.facebook.http.APICallerFactory;
 import com.face4j.facebook.http.APICallerInterface;
+import com.face4j.facebook.http.ResponseHandler;
+import com.face4j.facebook.http.StreamingAPICallerInterface;
+import com.face4j.facebook.http.TransportConfig;
 import com.face4j.facebook.util.Constants;
+import com.face4j.facebook.util.Endpoint;
 import com.face4j.facebook.util.JSONToObjectTransformer;
+import com.face4j.facebook.util.Parameters;
 import com.face4j.facebook.wrapper.FqlPageColumnCriteria;
 import com.face4j.facebook.wrapper.FqlUserColumnCriteria;
 import com.face4j.facebook.wrapper.StreamColumnCriteria;
@@ -48,6 +70,26 @@ public class Facebook implements Serializable {
 	private OAuthAccessToken authAccessToken;
 
 	private APICallerInterface caller = null;
+	
+	private transient LookupCoalescer lookupCoalescer;
+	
+	private transient ExecutorService lookupExecutor;
+	
+	private transient EntityCache entityCache;
+	
+	// the access token and its digest, last computed by getCacheScope()
+	private transient String[] cacheScope;
+	
+	private boolean lazyFqlPosts;
+	
+	private static final Type USER_MAP_TYPE = new TypeToken<Map<String, User>>(){}.getType();
+	
+	private static final Type PAGE_MAP_TYPE = new TypeToken<Map<String, Page>>(){}.getType();
+	
+	private static final Type COUNTS_MAP_TYPE = new TypeToken<Map<String, Counts>>(){}.getType();
+	
+	private static final String COUNTS_FIELDS = Fields.of("id").summary(ConnectionType.LIKES)
+			.summary(ConnectionType.COMMENTS).toString();
 
 	/**
 	 * If only the access token is passed, then the Apache Http Client library is used for making http
@@ -61,8 +103,32 @@ public class Facebook implements Serializable {
 	}
 
 	public Facebook(OAuthAccessToken authAccessToken, HttpClientType clientType) {
+		this(authAccessToken, APICallerFactory.getAPICallerInstance(clientType));
+	}
+
+	/**
+	 * Makes the requests through a caller of its own, set up with the transport config. Prefer a
+	 * {@link com.face4j.facebook.factory.FacebookFactory} with the config when creating many instances, they then share
+	 * the connections.
+	 * 
+	 * @param authAccessToken
+	 * @param clientType
+	 * @param transportConfig
+	 */
+	public Facebook(OAuthAccessToken authAccessToken, HttpClientType clientType, TransportConfig transportConfig) {
+		this(authAccessToken, APICallerFactory.newAPICallerInstance(clientType, transportConfig));
+	}
+
+	/**
+	 * Makes the requests through the given caller, this is how {@link com.face4j.facebook.factory.FacebookFactory}
+	 * shares its connection pools with the instances it creates
+	 * 
+	 * @param authAccessToken
+	 * @param caller
+	 */
+	public Facebook(OAuthAccessToken authAccessToken, APICallerInterface caller) {
 		this.authAccessToken = authAccessToken;
-		caller = APICallerFactory.getAPICallerInstance(clientType);
+		this.caller = caller;
 	}
 
 	/**
@@ -83,37 +149,72 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public User getUser(String fbId) throws FacebookException {
-		NameValuePair[] nameValuePairs = { new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()) };
-		return pullData(Constants.FACEBOOK_GRAPH_URL + "/" + fbId, User.class, nameValuePairs);
+		if (lookupCoalescer != null) {
+			User cached = getCached(fbId, User.class);
+			return (cached != null) ? cached : lookupCoalescer.lookup(this, fbId, User.class, USER_MAP_TYPE);
+		}
+		return getObject(fbId, User.class);
 	}
 	
+	/**
+	 * Returns only the given fields of a facebook user, the others are left unset. Much smaller and faster than the full
+	 * user when just a few fields are needed. These lookups are never coalesced.
+	 * 
+	 * @param fbId
+	 * @param fields e.g. EnumSet.of(UserField.ID, UserField.NAME, UserField.UPDATED_TIME)
+	 * @return
+	 * @throws FacebookException
+	 */
+	public User getUser(String fbId, Set<UserField> fields) throws FacebookException {
+		return getObject(fbId, User.class, fields);
+	}
 	
 	/**
-	 * Returns an array of facebook users for all the fb user ids passed
-	 * @param fbIds
+	 * Returns the given fields of a facebook user along with the connections they expand, e.g. the user with their
+	 * friends and likes in one request. See {@link Fields}.
+	 * 
+	 * @param fbId
+	 * @param fields
 	 * @return
 	 * @throws FacebookException
 	 */
+	public User getUserExpanded(String fbId, Fields fields) throws FacebookException {
+		return getObjectExpanded(fbId, User.class, fields);
+	}
+	
+	
+	/**
+	 * Returns an array of facebook users for all the fb user ids passed. The users are in the same order as the ids,
+	 * null for ids facebook returned nothing for. Large arrays are fetched in chunks of
+	 * {@link Constants#MAX_IDS_PER_REQUEST} ids, concurrently if a lookup executor has been set.
+	 * @param fbIds
+	 * @return
+	 * @throws FacebookException If any of the chunks could not be fetched. Use {@link #lookupUsers(String[])} to get
+	 *           partial results instead.
+	 */
 	public User[] getUsers(String[] fbIds) throws FacebookException {
-		
-		String concatenatedFbIds = StringUtils.join(fbIds, ",");
-		NameValuePair[] nameValuePairs = { new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()), 
-				new NameValuePair("ids",concatenatedFbIds) };
-		User[] users = null;
-		
-		Type type = new TypeToken<Map<String, User>>(){}.getType();
-		Map<String, User> userMap = pullData(Constants.FACEBOOK_GRAPH_URL+"/", type, nameValuePairs);
-		
-		if(userMap != null){
-			users = new User[fbIds.length];
-			
-			int i=0;
-			for(Iterator<String> iterator = userMap.keySet().iterator();iterator.hasNext();){
-					users[i++] = userMap.get(iterator.next());
-			}
-		}
-		
-		return users;
+		return getResults(lookupUsers(fbIds));
+	}
+	
+	/**
+	 * Same as {@link #getUsers(String[])} but failures are reported per id instead of failing the whole lookup
+	 * @param fbIds
+	 * @return
+	 * @throws FacebookException
+	 */
+	public LookupResult<User> lookupUsers(String[] fbIds) throws FacebookException {
+		return lookup(fbIds, User.class, USER_MAP_TYPE, null);
+	}
+	
+	/**
+	 * Same as {@link #getUsers(String[])} with only the given fields of each user
+	 * @param fbIds
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public User[] getUsers(String[] fbIds, Set<UserField> fields) throws FacebookException {
+		return getResults(lookup(fbIds, User.class, USER_MAP_TYPE, getFields(fields)));
 	}
 	
 	/**
@@ -124,37 +225,277 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public Page getPage(String fbId) throws FacebookException {
-		NameValuePair[] nameValuePairs = { new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()) };
-		return pullData(Constants.FACEBOOK_GRAPH_URL + "/" + fbId, Page.class, nameValuePairs);
+		if (lookupCoalescer != null) {
+			Page cached = getCached(fbId, Page.class);
+			return (cached != null) ? cached : lookupCoalescer.lookup(this, fbId, Page.class, PAGE_MAP_TYPE);
+		}
+		return getObject(fbId, Page.class);
 	}
 	
+	/**
+	 * Returns only the given fields of a facebook page, see {@link #getUser(String, Set)}
+	 * 
+	 * @param fbId
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Page getPage(String fbId, Set<PageField> fields) throws FacebookException {
+		return getObject(fbId, Page.class, fields);
+	}
 	
 	/**
-	 * Returns an array of facebook pages for all the fb page ids passed
-	 * @param fbIds
+	 * Returns the given fields of a facebook page along with the connections they expand, see {@link Fields}
+	 * 
+	 * @param fbId
+	 * @param fields
 	 * @return
 	 * @throws FacebookException
 	 */
+	public Page getPageExpanded(String fbId, Fields fields) throws FacebookException {
+		return getObjectExpanded(fbId, Page.class, fields);
+	}
+	
+	
+	/**
+	 * Returns an array of facebook pages for all the fb page ids passed. Same ordering and chunking as
+	 * {@link #getUsers(String[])}.
+	 * @param fbIds
+	 * @return
+	 * @throws FacebookException If any of the chunks could not be fetched. Use {@link #lookupPages(String[])} to get
+	 *           partial results instead.
+	 */
 	public Page[] getPages(String[] fbIds) throws FacebookException {
+		return getResults(lookupPages(fbIds));
+	}
+	
+	/**
+	 * Same as {@link #getPages(String[])} but failures are reported per id instead of failing the whole lookup
+	 * @param fbIds
+	 * @return
+	 * @throws FacebookException
+	 */
+	public LookupResult<Page> lookupPages(String[] fbIds) throws FacebookException {
+		return lookup(fbIds, Page.class, PAGE_MAP_TYPE, null);
+	}
+	
+	/**
+	 * Same as {@link #getPages(String[])} with only the given fields of each page
+	 * @param fbIds
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Page[] getPages(String[] fbIds, Set<PageField> fields) throws FacebookException {
+		return getResults(lookup(fbIds, Page.class, PAGE_MAP_TYPE, getFields(fields)));
+	}
+	
+	/**
+	 * Returns the number of likes and comments of a post, photo, album etc. without downloading the likes and comments
+	 * 
+	 * @param id
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Counts getCounts(String id) throws FacebookException {
+		return getObject(id, Counts.class, COUNTS_FIELDS);
+	}
+	
+	/**
+	 * Returns the like and comment counts of many objects, e.g. the posts of a feed to rank them, in as few requests as
+	 * possible. Same ordering and chunking as {@link #getUsers(String[])}.
+	 * 
+	 * @param ids
+	 * @return
+	 * @throws FacebookException If any of the chunks could not be fetched. Use {@link #lookupCounts(String[])} to get
+	 *           partial results instead.
+	 */
+	public Counts[] getCounts(String[] ids) throws FacebookException {
+		return getResults(lookupCounts(ids));
+	}
+	
+	/**
+	 * Same as {@link #getCounts(String[])} but failures are reported per id instead of failing the whole lookup
+	 * @param ids
+	 * @return
+	 * @throws FacebookException
+	 */
+	public LookupResult<Counts> lookupCounts(String[] ids) throws FacebookException {
+		return lookup(ids, Counts.class, COUNTS_MAP_TYPE, COUNTS_FIELDS);
+	}
+	
+	private <E> E[] getResults(LookupResult<E> lookupResult) throws FacebookException {
+		if (!lookupResult.getErrors().isEmpty()) {
+			throw lookupResult.getErrors().values().iterator().next();
+		}
+		return lookupResult.getResults();
+	}
+	
+	/**
+	 * Splits the ids into chunks that facebook accepts in one request and fetches them, on the lookup executor when
+	 * there is more than one chunk and an executor has been set
+	 */
+	private <E> LookupResult<E> lookup(final String[] fbIds, final Class<E> e, final Type mapType, final String fields)
+			throws FacebookException {
+		LookupResult<E> lookupResult = new LookupResult<E>(fbIds, e);
+		int chunkSize = Constants.MAX_IDS_PER_REQUEST;
+		
+		if (lookupExecutor == null || fbIds.length <= chunkSize) {
+			for (int from = 0; from < fbIds.length; from += chunkSize) {
+				int to = Math.min(from + chunkSize, fbIds.length);
+				try {
+					lookupResult.complete(from, to, getObjects(Arrays.copyOfRange(fbIds, from, to), e, mapType, fields));
+				} catch (FacebookException exception) {
+					lookupResult.fail(from, to, exception);
+				}
+			}
+			return lookupResult;
+		}
 		
-		String concatenatedFbIds = StringUtils.join(fbIds, ",");
-		NameValuePair[] nameValuePairs = { new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()), 
-				new NameValuePair("ids",concatenatedFbIds) };
-		Page[] pages = null;
+		List<Future<Map<String, E>>> futures = new ArrayList<Future<Map<String, E>>>();
+		for (int from = 0; from < fbIds.length; from += chunkSize) {
+			final String[] chunk = Arrays.copyOfRange(fbIds, from, Math.min(from + chunkSize, fbIds.length));
+			futures.add(lookupExecutor.submit(new Callable<Map<String, E>>() {
+				public Map<String, E> call() throws FacebookException {
+					return getObjects(chunk, e, mapType, fields);
+				}
+			}));
+		}
 		
-		Type type = new TypeToken<Map<String, Page>>(){}.getType();
-		Map<String, Page> userMap = pullData(Constants.FACEBOOK_GRAPH_URL+"/", type, nameValuePairs);
+		int from = 0;
+		try {
+			for (Future<Map<String, E>> future : futures) {
+				int to = Math.min(from + chunkSize, fbIds.length);
+				try {
+					lookupResult.complete(from, to, future.get());
+				} catch (ExecutionException exception) {
+					if (exception.getCause() instanceof FacebookException) {
+						lookupResult.fail(from, to, (FacebookException) exception.getCause());
+					} else {
+						lookupResult.fail(from, to, new FacebookException("Exception while calling facebook!", exception));
+					}
+				}
+				from = to;
+			}
+		} catch (InterruptedException exception) {
+			for (Future<Map<String, E>> future : futures) {
+				future.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new FacebookException("Interrupted while waiting for facebook!", exception);
+		}
 		
-		if(userMap != null){
-			pages = new Page[fbIds.length];
-			
-			int i=0;
-			for(Iterator<String> iterator = userMap.keySet().iterator();iterator.hasNext();){
-					pages[i++] = userMap.get(iterator.next());
+		return lookupResult;
+	}
+	
+	/**
+	 * Fetches a single graph object by id
+	 */
+	<E> E getObject(String fbId, Class<E> e) throws FacebookException {
+		return getObject(fbId, e, (String) null);
+	}
+	
+	/**
+	 * @param fields null or empty for the default fields
+	 */
+	<E> E getObject(String fbId, Class<E> e, Set<? extends GraphField> fields) throws FacebookException {
+		return getObject(fbId, e, getFields(fields));
+	}
+	
+	/**
+	 * Fetches any graph object, e.g. an album with its photos and their comments, with the given fields and the
+	 * connections they expand
+	 * 
+	 * @param <E>
+	 * @param fbId
+	 * @param e
+	 * @param fields null for the default fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public <E> E getObjectExpanded(String fbId, Class<E> e, Fields fields) throws FacebookException {
+		return getObject(fbId, e, getFields(fields));
+	}
+	
+	private <E> E getObject(String fbId, Class<E> e, String fields) throws FacebookException {
+		NameValuePair[] nameValuePairs = parameters(2).add(Constants.PARAM_FIELDS, fields).toArray();
+		return pullData(Endpoint.OBJECT.url(fbId), e, nameValuePairs);
+	}
+	
+	/**
+	 * Fetches several graph objects in one call using the ids param. The map is keyed by the ids as sent.
+	 */
+	<E> Map<String, E> getObjects(String[] fbIds, Class<E> e, Type mapType) throws FacebookException {
+		return getObjects(fbIds, e, mapType, null);
+	}
+	
+	/**
+	 * Objects in the entity cache are taken from it, only the others are asked for and then cached one by one, under
+	 * the same keys {@link #getObjectExpanded(String, Class, Fields)} uses
+	 * 
+	 * @param fields The value of the fields param, null for the default fields
+	 */
+	private <E> Map<String, E> getObjects(String[] fbIds, Class<E> e, Type mapType, String fields)
+			throws FacebookException {
+		if (entityCache == null || !entityCache.isCached(e)) {
+			NameValuePair[] nameValuePairs = parameters(3).add("ids", StringUtils.join(fbIds, ",")).add(
+					Constants.PARAM_FIELDS, fields).toArray();
+			return pullData(Endpoint.GRAPH.url(), mapType, nameValuePairs);
+		}
+		
+		NameValuePair[] objectNameValuePairs = parameters(2).add(Constants.PARAM_FIELDS, fields).toArray();
+		Map<String, E> objects = new HashMap<String, E>();
+		Map<String, String> missingKeys = new LinkedHashMap<String, String>();
+		for (String fbId : fbIds) {
+			String key = getCacheKey(e, Endpoint.OBJECT.url(fbId), objectNameValuePairs);
+			Object cached = entityCache.get(key);
+			if (e.isInstance(cached)) {
+				objects.put(fbId, e.cast(cached));
+			} else {
+				missingKeys.put(fbId, key);
 			}
 		}
+		if (missingKeys.isEmpty()) {
+			return objects;
+		}
 		
-		return pages;
+		NameValuePair[] nameValuePairs = parameters(3).add("ids", StringUtils.join(missingKeys.keySet(), ",")).add(
+				Constants.PARAM_FIELDS, fields).toArray();
+		int[] length = new int[1];
+		Map<String, E> fetched = fetch(Endpoint.GRAPH.url(), mapType, nameValuePairs, length);
+		if (fetched != null) {
+			// the response is split evenly between the objects, close enough for their weight
+			int weight = length[0] / Math.max(fetched.size(), 1);
+			for (Map.Entry<String, E> object : fetched.entrySet()) {
+				String key = missingKeys.get(object.getKey());
+				if (key != null && object.getValue() != null) {
+					entityCache.put(key, object.getValue(), weight);
+				}
+			}
+			objects.putAll(fetched);
+		}
+		return objects;
+	}
+	
+	/**
+	 * @return The value of the fields param, null if there are no fields
+	 */
+	private static String getFields(Set<? extends GraphField> fields) {
+		if (fields == null || fields.isEmpty()) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder(fields.size() * 12);
+		for (GraphField field : fields) {
+			if (builder.length() > 0) {
+				builder.append(',');
+			}
+			builder.append(field.getFieldName());
+		}
+		return builder.toString();
+	}
+	
+	private static String getFields(Fields fields) {
+		return (fields == null || fields.isEmpty()) ? null : fields.toString();
 	}
 	
 
@@ -297,10 +638,91 @@ public class Facebook implements Serializable {
 		return authAccessToken;
 	}
 
-	private NameValuePair getNameValuePairAccessToken() {
+	/**
+	 * Coalesce {@link #getUser(String)} and {@link #getPage(String)} calls with those of other threads using the same
+	 * access token. null (the default) turns coalescing off.
+	 * 
+	 * @param lookupCoalescer
+	 */
+	public void setLookupCoalescer(LookupCoalescer lookupCoalescer) {
+		this.lookupCoalescer = lookupCoalescer;
+	}
+	
+	public LookupCoalescer getLookupCoalescer() {
+		return lookupCoalescer;
+	}
+	
+	/**
+	 * Serve graph objects of the types the cache holds from it instead of calling facebook, see {@link EntityCache}.
+	 * null (the default) turns caching off.
+	 * 
+	 * @param entityCache
+	 */
+	public void setEntityCache(EntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+	
+	public EntityCache getEntityCache() {
+		return entityCache;
+	}
+	
+	/**
+	 * Executor used to fetch the chunks of large {@link #getUsers(String[])}/{@link #getPages(String[])} lookups in
+	 * parallel. Use a bounded pool, its size caps the number of concurrent requests per lookup. null (the default)
+	 * fetches the chunks one after the other on the calling thread.
+	 * 
+	 * @param lookupExecutor
+	 */
+	public void setLookupExecutor(ExecutorService lookupExecutor) {
+		this.lookupExecutor = lookupExecutor;
+	}
+	
+	public ExecutorService getLookupExecutor() {
+		return lookupExecutor;
+	}
+	
+	/**
+	 * If true, the attachment, comments, likes and privacy of the {@link FqlPost}s returned by the news feed are kept as
+	 * raw json, cut out of the response without being parsed, and only bound when their getter is first called. Saves
+	 * parse time and memory when most posts are never looked at beyond their basic fields. false by default.
+	 * 
+	 * @param lazyFqlPosts
+	 */
+	public void setLazyFqlPosts(boolean lazyFqlPosts) {
+		this.lazyFqlPosts = lazyFqlPosts;
+	}
+	
+	public boolean isLazyFqlPosts() {
+		return lazyFqlPosts;
+	}
+
+	APICallerInterface getCaller() {
+		return caller;
+	}
+	
+	/**
+	 * Starts a new batch. Calls queued on the returned {@link BatchRequest} are sent to facebook together in a single
+	 * http request when {@link BatchRequest#execute()} is called.
+	 * 
+	 * @return
+	 */
+	public BatchRequest batch() {
+		return new BatchRequest(this);
+	}
+
+	NameValuePair getNameValuePairAccessToken() {
 		return new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken());
 	}
 	
+	/**
+	 * The parameters of a call, starting with the access token
+	 * 
+	 * @param capacity Including the access token
+	 */
+	private Parameters parameters(int capacity) {
+		return new Parameters(capacity).add(getNameValuePairAccessToken());
+	}
+	
 	/**
 	 * Publish a new post on the given profile's feed/wall
 	 * 
@@ -319,45 +741,14 @@ public class Facebook implements Serializable {
 	 */
 	public void wallPost(String message, String picture, String link, String name, String caption, String description, String source, String profileId) throws FacebookException{
 
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-
 		if(profileId == null){
 			profileId = Constants.ME;
 		}
 		
-		if(message !=null){
-			namesValues.add(new NameValuePair(Constants.MESSAGE,message));
-		}
-		
-		if(picture != null){
-			namesValues.add(new NameValuePair(Constants.PICTURE,picture));
-		}
-		
-		if(link != null){
-			namesValues.add(new NameValuePair(Constants.LINK,link));
-		}
-		
-		if(name != null){
-			namesValues.add(new NameValuePair(Constants.NAME,name));
-		}
-		
-		if(caption != null){
-			namesValues.add(new NameValuePair(Constants.CAPTION,caption));
-		}
-		
-		if(description != null){
-			namesValues.add(new NameValuePair(Constants.DESCRIPTION,description));
-		}
-		
-		if(source != null){
-			namesValues.add(new NameValuePair(Constants.SOURCE,source));
-		}
-
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_FEED.replaceFirst(Constants.REPLACE_PROFILE_ID, profileId), nameValuePairs);
+		NameValuePair[] nameValuePairs = parameters(8).add(Constants.MESSAGE, message).add(Constants.PICTURE, picture)
+				.add(Constants.LINK, link).add(Constants.NAME, name).add(Constants.CAPTION, caption)
+				.add(Constants.DESCRIPTION, description).add(Constants.SOURCE, source).toArray();
+		caller.postData(Endpoint.FEED.url(profileId), nameValuePairs);
 	
 	}
 	
@@ -374,41 +765,14 @@ public class Facebook implements Serializable {
 	 */
 	public void shareLink(String link, String message, String picture, String name, String caption, String description, String profileId) throws FacebookException{
 
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-
 		if(profileId == null){
 			profileId = Constants.ME;
 		}
 		
-		if(message !=null){
-			namesValues.add(new NameValuePair(Constants.MESSAGE,message));
-		}
-		
-		if(picture != null){
-			namesValues.add(new NameValuePair(Constants.PICTURE,picture));
-		}
-		
-		if(link != null){
-			namesValues.add(new NameValuePair(Constants.LINK,link));
-		}
-		
-		if(name != null){
-			namesValues.add(new NameValuePair(Constants.NAME,name));
-		}
-		
-		if(caption != null){
-			namesValues.add(new NameValuePair(Constants.CAPTION,caption));
-		}
-		
-		if(description != null){
-			namesValues.add(new NameValuePair(Constants.DESCRIPTION,description));
-		}
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_LINK.replaceFirst(Constants.REPLACE_PROFILE_ID, profileId), nameValuePairs);
+		NameValuePair[] nameValuePairs = parameters(7).add(Constants.MESSAGE, message).add(Constants.PICTURE, picture)
+				.add(Constants.LINK, link).add(Constants.NAME, name).add(Constants.CAPTION, caption)
+				.add(Constants.DESCRIPTION, description).toArray();
+		caller.postData(Endpoint.LINKS.url(profileId), nameValuePairs);
 	
 	}
 	
@@ -422,14 +786,8 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public CommonReturnObject comment(String message, String objectId) throws FacebookException{
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		namesValues.add(new NameValuePair(Constants.MESSAGE,message));
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		String response =  caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_COMMENTS.replaceFirst(Constants.REPLACE_OBJECT_ID, objectId), nameValuePairs);
+		NameValuePair[] nameValuePairs = parameters(2).add(Constants.MESSAGE, message).toArray();
+		String response =  caller.postData(Endpoint.COMMENTS.url(objectId), nameValuePairs);
 		
 		return JSONToObjectTransformer.getObject(response, CommonReturnObject.class);
 	}
@@ -440,13 +798,7 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public void like(String objectId) throws FacebookException {
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_LIKES.replaceFirst(Constants.REPLACE_OBJECT_ID, objectId), nameValuePairs);
+		caller.postData(Endpoint.LIKES.url(objectId), parameters(1).toArray());
 	}
 	
 	/**
@@ -457,21 +809,9 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public void createNote(String message, String subject, String profileId) throws FacebookException {
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		
-		if(message != null){
-			namesValues.add(new NameValuePair(Constants.MESSAGE,message));
-		}
-		
-		if(subject != null){
-			namesValues.add(new NameValuePair(Constants.SUBJECT, subject));
-		}
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_NOTES.replaceFirst(Constants.REPLACE_PROFILE_ID, profileId), nameValuePairs);
+		NameValuePair[] nameValuePairs = parameters(3).add(Constants.MESSAGE, message).add(Constants.SUBJECT, subject)
+				.toArray();
+		caller.postData(Endpoint.NOTES.url(profileId), nameValuePairs);
 	}
 	
 	/**
@@ -483,29 +823,13 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public void createEvent(String name, String startTime, String endTime, String profileId) throws FacebookException {
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		
 		if(profileId == null){
 			profileId = Constants.ME;
 		}
 		
-		if(name != null){
-			namesValues.add(new NameValuePair(Constants.NAME,name));
-		}
-		
-		if(startTime != null){
-			namesValues.add(new NameValuePair(Constants.START_TIME, startTime));
-		}
-		
-		if(endTime != null){
-			namesValues.add(new NameValuePair(Constants.END_TIME, endTime));
-		}
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_EVENTS.replaceFirst(Constants.REPLACE_PROFILE_ID, profileId), nameValuePairs);
+		NameValuePair[] nameValuePairs = parameters(4).add(Constants.NAME, name).add(Constants.START_TIME, startTime)
+				.add(Constants.END_TIME, endTime).toArray();
+		caller.postData(Endpoint.EVENTS.url(profileId), nameValuePairs);
 	}
 	
 	/**
@@ -514,13 +838,7 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public void eventAttending(String eventId) throws FacebookException {
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_ATTENDING.replaceFirst(Constants.REPLACE_EVENT_ID, eventId), nameValuePairs);
+		caller.postData(Endpoint.ATTENDING.url(eventId), parameters(1).toArray());
 	}
 	
 	/**
@@ -529,13 +847,7 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public void eventMaybe(String eventId) throws FacebookException {
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_MAYBE.replaceFirst(Constants.REPLACE_EVENT_ID, eventId), nameValuePairs);
+		caller.postData(Endpoint.MAYBE.url(eventId), parameters(1).toArray());
 	}
 	
 	/**
@@ -544,13 +856,7 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public void eventDeclined(String eventId) throws FacebookException {
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_DECLINED.replaceFirst(Constants.REPLACE_EVENT_ID, eventId), nameValuePairs);
+		caller.postData(Endpoint.DECLINED.url(eventId), parameters(1).toArray());
 	}
 	
 	/**
@@ -561,25 +867,12 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public void createAlbum(String name, String message, String profileId) throws FacebookException {
-		List<NameValuePair> namesValues = new ArrayList<NameValuePair>();
-
-		namesValues.add(new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()));
-		
 		if(profileId == null){
 			profileId = Constants.ME;
 		}
 		
-		if(name != null){
-			namesValues.add(new NameValuePair(Constants.NAME,name));
-		}
-		
-		if(message != null){
-			namesValues.add(new NameValuePair(Constants.MESSAGE, message));
-		}
-		
-		NameValuePair[] nameValuePairs = new NameValuePair[namesValues.size()]; 
-		namesValues.toArray(nameValuePairs);
-		caller.postData(Constants.FACEBOOK_GRAPH_URL + Constants.POST_ALBUMS.replaceFirst(Constants.REPLACE_PROFILE_ID, profileId), nameValuePairs);
+		NameValuePair[] nameValuePairs = parameters(3).add(Constants.NAME, name).add(Constants.MESSAGE, message).toArray();
+		caller.postData(Endpoint.ALBUMS.url(profileId), nameValuePairs);
 	}
 	
 	//TODO: Upload photo
@@ -652,6 +945,32 @@ public class Facebook implements Serializable {
 	public FqlPost[] newsFeed(List<StreamColumn> columnNames, StreamColumnCriteria columnCriteria)
 			throws FacebookException {
 
+		NameValuePair[] nameValuePairs = getFqlNameValuePairs(newsFeedQuery(columnNames, columnCriteria));
+
+		String jsonResponse = caller.getData(Constants.FQL_URL, nameValuePairs);
+
+		FqlPost[] fqlPosts = JSONToObjectTransformer.getObject(jsonResponse, FqlPost[].class, lazyFqlPosts);
+
+		return fqlPosts;
+	}
+	
+	/**
+	 * Same as {@link #newsFeed(List, StreamColumnCriteria)} but hands the posts to the row handler one at a time as they
+	 * are read, instead of building an array of all of them. Use this for large feeds.
+	 * 
+	 * @param columnNames
+	 * @param columnCriteria
+	 * @param rowHandler
+	 * @return The number of posts read
+	 * @throws FacebookException
+	 */
+	public int newsFeed(List<StreamColumn> columnNames, StreamColumnCriteria columnCriteria, FqlRowHandler<FqlPost> rowHandler)
+			throws FacebookException {
+		return getFqlRows(newsFeedQuery(columnNames, columnCriteria), FqlPost.class, lazyFqlPosts, rowHandler);
+	}
+	
+	private String newsFeedQuery(List<StreamColumn> columnNames, StreamColumnCriteria columnCriteria) {
+		
 		//StringBuilder criteria = constructCriteria(columnCriteria);
 		StringBuilder columnName = appendColumns(columnNames);
 
@@ -662,18 +981,7 @@ public class Facebook implements Serializable {
 		if(columnCriteria!=null){
 			fqlQuery += columnCriteria.toString();
 		}
-		
-		NameValuePair[] nameValuePairs = { getNameValuePairAccessToken(), new NameValuePair("query", fqlQuery),
-				new NameValuePair("format", "JSON") };
-
-		String jsonResponse = caller.getData("https://api.facebook.com/method/fql.query", nameValuePairs);
-
-		// fql currently sends empty arrays with {} but we need []
-		jsonResponse = jsonResponse.replaceAll("\\{\\}", "[]");
-
-		FqlPost[] fqlPosts = JSONToObjectTransformer.getObject(jsonResponse, FqlPost[].class);
-
-		return fqlPosts;
+		return fqlQuery;
 	}
 	
 	/**
@@ -685,46 +993,90 @@ public class Facebook implements Serializable {
 	 */
 	public FqlUser[] fqlUsers(List<FqlUserColumn> columnNames, FqlUserColumnCriteria columnCriteria) throws FacebookException {
 		
+		NameValuePair[] nameValuePairs = getFqlNameValuePairs(fqlUsersQuery(columnNames, columnCriteria));
+		
+		String jsonResponse = caller.getData(Constants.FQL_URL, nameValuePairs);
+		
+		FqlUser[] fqlUsers = JSONToObjectTransformer.getObject(jsonResponse, FqlUser[].class);
+		
+		return fqlUsers;
+	}
+	
+	/**
+	 * Same as {@link #fqlUsers(List, FqlUserColumnCriteria)} but hands the users to the row handler one at a time as
+	 * they are read, instead of building an array of all of them.
+	 * 
+	 * @param columnNames
+	 * @param columnCriteria
+	 * @param rowHandler
+	 * @return The number of users read
+	 * @throws FacebookException
+	 */
+	public int fqlUsers(List<FqlUserColumn> columnNames, FqlUserColumnCriteria columnCriteria, FqlRowHandler<FqlUser> rowHandler) throws FacebookException {
+		return getFqlRows(fqlUsersQuery(columnNames, columnCriteria), FqlUser.class, false, rowHandler);
+	}
+	
+	private String fqlUsersQuery(List<FqlUserColumn> columnNames, FqlUserColumnCriteria columnCriteria) {
+		
 		StringBuilder columnName = appendColumns(columnNames);
 		
-		String fqlQuery = "SELECT "
+		return "SELECT "
 			+ columnName.toString()
 			+ " FROM user WHERE "
 			+ columnCriteria.toString();
+	}
+
+	public FqlPage[] fqlPages(List<FqlPageColumn> columnNames, FqlPageColumnCriteria columnCriteria) throws FacebookException {
+	
+		NameValuePair[] nameValuePairs = getFqlNameValuePairs(fqlPagesQuery(columnNames, columnCriteria));
 		
-		NameValuePair[] nameValuePairs = { getNameValuePairAccessToken(), new NameValuePair("query", fqlQuery),
-				new NameValuePair("format", "JSON") };
-		
-		String jsonResponse = caller.getData("https://api.facebook.com/method/fql.query", nameValuePairs);
-		
-		// fql currently sends empty arrays with {} but we need []
-		jsonResponse = jsonResponse.replaceAll("\\{\\}", "[]");
-		
-		FqlUser[] fqlUsers = JSONToObjectTransformer.getObject(jsonResponse, FqlUser[].class);
+		String jsonResponse = caller.getData(Constants.FQL_URL, nameValuePairs);
 		
+		FqlPage[] fqlUsers = JSONToObjectTransformer.getObject(jsonResponse, FqlPage[].class);
 		return fqlUsers;
+		
 	}
-
-	public FqlPage[] fqlPages(List<FqlPageColumn> columnNames, FqlPageColumnCriteria columnCriteria) throws FacebookException {
 	
+	/**
+	 * Same as {@link #fqlPages(List, FqlPageColumnCriteria)} but hands the pages to the row handler one at a time as
+	 * they are read, instead of building an array of all of them.
+	 * 
+	 * @param columnNames
+	 * @param columnCriteria
+	 * @param rowHandler
+	 * @return The number of pages read
+	 * @throws FacebookException
+	 */
+	public int fqlPages(List<FqlPageColumn> columnNames, FqlPageColumnCriteria columnCriteria, FqlRowHandler<FqlPage> rowHandler) throws FacebookException {
+		return getFqlRows(fqlPagesQuery(columnNames, columnCriteria), FqlPage.class, false, rowHandler);
+	}
+	
+	private String fqlPagesQuery(List<FqlPageColumn> columnNames, FqlPageColumnCriteria columnCriteria) {
+		
 		StringBuilder columnName = appendColumns(columnNames);
 		
-		String fqlQuery = "SELECT "
+		return "SELECT "
 			+ columnName.toString()
 			+ " FROM page WHERE "
 			+ columnCriteria.toString();
-		
+	}
+	
+	private NameValuePair[] getFqlNameValuePairs(String fqlQuery) {
 		NameValuePair[] nameValuePairs = { getNameValuePairAccessToken(), new NameValuePair("query", fqlQuery),
 				new NameValuePair("format", "JSON") };
+		return nameValuePairs;
+	}
+	
+	private <E> int getFqlRows(String fqlQuery, Class<E> rowType, boolean lazy, FqlRowHandler<E> rowHandler) throws FacebookException {
+		String url = Constants.FQL_URL;
+		NameValuePair[] nameValuePairs = getFqlNameValuePairs(fqlQuery);
 		
-		String jsonResponse = caller.getData("https://api.facebook.com/method/fql.query", nameValuePairs);
-		
-		// fql currently sends empty arrays with {} but we need []
-		jsonResponse = jsonResponse.replaceAll("\\{\\}", "[]");
-		
-		FqlPage[] fqlUsers = JSONToObjectTransformer.getObject(jsonResponse, FqlPage[].class);
-		return fqlUsers;
-		
+		if (caller instanceof StreamingAPICallerInterface) {
+			return ((StreamingAPICallerInterface) caller).getData(url, nameValuePairs,
+					JSONToObjectTransformer.getRowsHandler(rowType, lazy, rowHandler)).intValue();
+		}
+		// the response is held as a String but the rows are still converted one at a time
+		return JSONToObjectTransformer.getRows(new StringReader(caller.getData(url, nameValuePairs)), rowType, lazy, rowHandler);
 	}
 
 	private <E> StringBuilder appendColumns(List<E> columnNames) {
@@ -835,10 +1187,7 @@ public class Facebook implements Serializable {
 		NameValuePair[] nameValuePairs = { getNameValuePairAccessToken(), new NameValuePair("query", fqlQuery),
 				new NameValuePair("format", "JSON") };
 
-		String jsonResponse = caller.getData("https://api.facebook.com/method/fql.query", nameValuePairs);
-
-		// fql currently sends empty arrays with {} but we need []
-		jsonResponse = jsonResponse.replaceAll("\\{\\}", "[]");
+		String jsonResponse = caller.getData(Constants.FQL_URL, nameValuePairs);
 
 		FqlConnection[] fqlConnection = JSONToObjectTransformer.getObject(jsonResponse, FqlConnection[].class);
 
@@ -887,8 +1236,31 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public Post getPost(String postId) throws FacebookException{
-		NameValuePair[] nameValuePairs = { new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken()) };
-		return pullData(Constants.FACEBOOK_GRAPH_URL + "/" + postId, Post.class, nameValuePairs);
+		return getObject(postId, Post.class);
+	}
+	
+	/**
+	 * Returns only the given fields of a post, see {@link #getUser(String, Set)}
+	 * 
+	 * @param postId
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Post getPost(String postId, Set<PostField> fields) throws FacebookException{
+		return getObject(postId, Post.class, fields);
+	}
+	
+	/**
+	 * Returns the given fields of a post along with the connections they expand, see {@link Fields}
+	 * 
+	 * @param postId
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Post getPostExpanded(String postId, Fields fields) throws FacebookException{
+		return getObjectExpanded(postId, Post.class, fields);
 	}
 
 	/**
@@ -905,23 +1277,64 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public <E> E getConnections(String id, ConnectionType connectionType, Class<E> e, Paging paging) throws FacebookException {
+		return getConnections(id, connectionType, e, paging, (String) null);
+	}
+	
+	/**
+	 * Same as {@link #getConnections(String, ConnectionType, Class, Paging)} with only the given fields of each object
+	 * of the connection, e.g. {@link UserField}s for the friends of a user or {@link PostField}s for a feed
+	 * 
+	 * @param <E>
+	 * @param id
+	 * @param connectionType
+	 * @param e
+	 * @param paging
+	 * @param fields null or empty for the default fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public <E> E getConnections(String id, ConnectionType connectionType, Class<E> e, Paging paging,
+			Set<? extends GraphField> fields) throws FacebookException {
+		return getConnections(id, connectionType, e, paging, getFields(fields));
+	}
+	
+	/**
+	 * Same as {@link #getConnections(String, ConnectionType, Class, Paging)} with the given fields of each object of the
+	 * connection and the connections they expand, e.g. the photos of an album with the comments of each photo
+	 * 
+	 * @param <E>
+	 * @param id
+	 * @param connectionType
+	 * @param e
+	 * @param paging
+	 * @param fields null for the default fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public <E> E getConnectionsExpanded(String id, ConnectionType connectionType, Class<E> e, Paging paging,
+			Fields fields) throws FacebookException {
+		return getConnections(id, connectionType, e, paging, getFields(fields));
+	}
+	
+	private <E> E getConnections(String id, ConnectionType connectionType, Class<E> e, Paging paging, String fields)
+			throws FacebookException {
 
-		NameValuePair[] nameValuePairs = constructNameValuePairs(paging);
+		NameValuePair[] nameValuePairs = constructNameValuePairs(paging, fields);
 		
-		E t = pullData(Constants.FACEBOOK_GRAPH_URL + "/" + id + "/" + connectionType.getType(), e, nameValuePairs);
+		E t = pullData(Endpoint.CONNECTION.url(id, connectionType.getType()), e, nameValuePairs);
 		touchPaging(t);
 		
 		return t;
 	}
 	
 	public boolean delete(String id) throws FacebookException {
-		NameValuePair[] nameValuePairs = constructNameValuePairs(null);
-		return Boolean.parseBoolean(caller.deleteData(Constants.FACEBOOK_GRAPH_URL + "/" + id, nameValuePairs));
+		NameValuePair[] nameValuePairs = constructNameValuePairs(null, null);
+		return Boolean.parseBoolean(caller.deleteData(Endpoint.OBJECT.url(id), nameValuePairs));
 	}
 	
 	public boolean unlike(String id) throws FacebookException {
-		NameValuePair[] nameValuePairs = constructNameValuePairs(null);
-		return Boolean.parseBoolean(caller.deleteData(Constants.FACEBOOK_GRAPH_URL + "/" + id +"/likes", nameValuePairs));
+		NameValuePair[] nameValuePairs = constructNameValuePairs(null, null);
+		return Boolean.parseBoolean(caller.deleteData(Endpoint.LIKES.url(id), nameValuePairs));
 	}
 	
 	/**
@@ -932,7 +1345,7 @@ public class Facebook implements Serializable {
 	 * @param <E>
 	 * @param e
 	 */
-	private <E> void touchPaging(E e) {
+	static <E> void touchPaging(E e) {
 		try {
 			Class thisClass = Class.forName(e.getClass().getName());
 
@@ -961,19 +1374,23 @@ public class Facebook implements Serializable {
 	}
 	
 
-	private NameValuePair[] constructNameValuePairs(Paging paging) {
-		int i = 1;
+	private NameValuePair[] constructNameValuePairs(Paging paging, String fieldsParam) {
+		int i = 1 + (fieldsParam != null ? 1 : 0);
 		NameValuePair[] nameValuePairs = null;
 		
 		if (paging != null) {
-			i += Paging.pagingElementCount(paging);
-			nameValuePairs = new NameValuePair[i];
+			int pagingCount = Paging.pagingElementCount(paging);
+			nameValuePairs = new NameValuePair[pagingCount + i];
 			Paging.addNameValuePairs(paging, nameValuePairs);
+			i += pagingCount;
 		} else {
 			nameValuePairs = new NameValuePair[i];
 		}
 
 		nameValuePairs[i - 1] = new NameValuePair(Constants.PARAM_ACCESS_TOKEN, this.authAccessToken.getAccessToken());
+		if (fieldsParam != null) {
+			nameValuePairs[i - 2] = new NameValuePair(Constants.PARAM_FIELDS, fieldsParam);
+		}
 		return nameValuePairs;
 	}
 	
@@ -981,6 +1398,8 @@ public class Facebook implements Serializable {
 	/**
 	 * Raw API method to pull any data in json form and transform it into the right object <br>
 	 * An HTTP GET method is used here
+	 * Objects of the types held by the entity cache, if one is set, are taken from it when they are there and put in it
+	 * when they are not, see {@link #setEntityCache(EntityCache)}
 	 * 
 	 * @param <E>
 	 * @param url
@@ -990,9 +1409,27 @@ public class Facebook implements Serializable {
 	 * @throws FacebookException
 	 */
 	public <E> E pullData(String url, Class<E> e, NameValuePair[] nameValuePairs) throws FacebookException {
+		String key = getCacheKey(e, url, nameValuePairs);
+		if (key != null) {
+			Object cached = entityCache.get(key);
+			if (e.isInstance(cached)) {
+				return e.cast(cached);
+			}
+			int[] length = new int[1];
+			E entity = this.<E>fetch(url, e, nameValuePairs, length);
+			if (entity != null) {
+				entityCache.put(key, entity, length[0]);
+			}
+			return entity;
+		}
+		
 		// APICaller would retrieve the json string object from facebook by making a https call
 		// Once the json string object is obtaind, it is passed to obj transformer and the right object
 		// is retrieved
+		if (caller instanceof StreamingAPICallerInterface) {
+			// Callers that can stream hand the response body to the transformer without a String copy
+			return ((StreamingAPICallerInterface) caller).getData(url, nameValuePairs, JSONToObjectTransformer.<E>getResponseHandler(e));
+		}
 		return JSONToObjectTransformer.getObject(caller.getData(url, nameValuePairs), e);
 	}
 	
@@ -1010,8 +1447,128 @@ public class Facebook implements Serializable {
 		// APICaller would retrieve the json string object from facebook by making a https call
 		// Once the json string object is obtaind, it is passed to obj transformer and the right object
 		// is retrieved
+		if (caller instanceof StreamingAPICallerInterface) {
+			return ((StreamingAPICallerInterface) caller).getData(url, nameValuePairs, JSONToObjectTransformer.<E>getResponseHandler(type));
+		}
 		return JSONToObjectTransformer.<E>getObject(caller.getData(url, nameValuePairs), type);
 	}
 	
+	/**
+	 * Same as {@link #pullData(String, Type, NameValuePair[])}, also returning the length of the json read
+	 * 
+	 * @param length length[0] is set to the number of characters of the response
+	 */
+	private <E> E fetch(String url, Type type, NameValuePair[] nameValuePairs, final int[] length)
+			throws FacebookException {
+		if (caller instanceof StreamingAPICallerInterface) {
+			final ResponseHandler<E> handler = JSONToObjectTransformer.<E>getResponseHandler(type);
+			return ((StreamingAPICallerInterface) caller).getData(url, nameValuePairs, new ResponseHandler<E>() {
+				public E handle(Reader reader) throws FacebookException {
+					CountingReader countingReader = new CountingReader(reader);
+					try {
+						return handler.handle(countingReader);
+					} finally {
+						length[0] = countingReader.count;
+					}
+				}
+			});
+		}
+		String response = caller.getData(url, nameValuePairs);
+		length[0] = response.length();
+		return JSONToObjectTransformer.<E>getObject(response, type);
+	}
+	
+	/**
+	 * @return The object from the entity cache, null if it isn't there
+	 */
+	private <E> E getCached(String fbId, Class<E> e) {
+		String key = getCacheKey(e, Endpoint.OBJECT.url(fbId), parameters(1).toArray());
+		Object cached = (key == null) ? null : entityCache.get(key);
+		return e.isInstance(cached) ? e.cast(cached) : null;
+	}
+	
+	/**
+	 * The key of an object in the entity cache: its type, a digest of the access token unless the type is shared, the
+	 * url and the parameters other than the access token, e.g. the fields
+	 * 
+	 * @return null if there is no entity cache or it doesn't hold objects of the type
+	 */
+	private String getCacheKey(Class<?> e, String url, NameValuePair[] nameValuePairs) {
+		if (entityCache == null || !entityCache.isCached(e)) {
+			return null;
+		}
+		Parameters query = new Parameters(nameValuePairs == null ? 0 : nameValuePairs.length);
+		if (nameValuePairs != null) {
+			for (NameValuePair nameValuePair : nameValuePairs) {
+				if (!Constants.PARAM_ACCESS_TOKEN.equals(nameValuePair.getName())) {
+					query.add(nameValuePair);
+				}
+			}
+		}
+		String scope = entityCache.isShared(e) ? "" : getCacheScope();
+		return new StringBuilder(e.getName()).append(' ').append(scope).append(' ').append(url).append('?').append(
+				Parameters.encode(query.toArray())).toString();
+	}
+	
+	/**
+	 * The hex SHA-256 digest of the access token, so that the token itself is never kept in, or seen by, the cache
+	 */
+	private String getCacheScope() {
+		String accessToken = authAccessToken.getAccessToken();
+		if (accessToken == null) {
+			return "";
+		}
+		String[] scope = cacheScope;
+		if (scope == null || !accessToken.equals(scope[0])) {
+			try {
+				byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes("UTF-8"));
+				scope = new String[] { accessToken, new String(Hex.encodeHex(digest)) };
+			} catch (NoSuchAlgorithmException ex) {
+				throw new IllegalStateException("SHA-256 is not available", ex);
+			} catch (UnsupportedEncodingException ex) {
+				throw new IllegalStateException("UTF-8 is not available", ex);
+			}
+			cacheScope = scope;
+		}
+		return scope[1];
+	}
+	
+	/**
+	 * Counts the characters read, the weight of what is read from them
+	 */
+	private static class CountingReader extends FilterReader {
+
+		private int count;
+
+		CountingReader(Reader in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int c = super.read();
+			if (c != -1) {
+				count++;
+			}
+			return c;
+		}
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			int read = super.read(cbuf, off, len);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
+	
 
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.face4j.facebook;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.face4j.facebook.enums.ConnectionType;
+import com.face4j.facebook.enums.GraphField;
+
+/**
+ * The fields to fetch of a graph object, including connections expanded in the same request. For example
+ *
+ * <pre>
+ * Fields fields = Fields.of(UserField.ID, UserField.NAME)
+ * 		.expand(ConnectionType.FRIENDS, 50, Fields.of(UserField.ID, UserField.NAME))
+ * 		.expand(ConnectionType.LIKES, 10)
+ * 		.expand(ConnectionType.PHOTOS, 25, Fields.of(&quot;id&quot;, &quot;picture&quot;).expand(ConnectionType.COMMENTS, 5));
+ * User user = facebook.getUserExpanded(&quot;me&quot;, fields);
+ * </pre>
+ *
+ * is sent as
+ * <code>fields=id,name,friends.limit(50){id,name},likes.limit(10),photos.limit(25){id,picture,comments.limit(5)}</code>
+ * and the user comes back with {@link com.face4j.facebook.entity.User#getFriends()},
+ * {@link com.face4j.facebook.entity.User#getLikes()} and {@link com.face4j.facebook.entity.User#getPhotos()} filled
+ * in, all in one round trip instead of one per connection and object. <br>
+ *
+ * Not thread safe while being built, fine to share once built.
+ */
+public class Fields {
+
+	private final List<String> names = new ArrayList<String>();
+
+	private final List<Expansion> expansions = new ArrayList<Expansion>();
+
+	public static Fields of(GraphField... fields) {
+		return new Fields().add(fields);
+	}
+
+	/**
+	 * For objects that have no {@link GraphField} enum, e.g. photos
+	 */
+	public static Fields of(String... fields) {
+		return new Fields().add(fields);
+	}
+
+	public Fields add(GraphField... fields) {
+		for (GraphField field : fields) {
+			names.add(field.getFieldName());
+		}
+		return this;
+	}
+
+	public Fields add(String... fields) {
+		for (String field : fields) {
+			names.add(field);
+		}
+		return this;
+	}
+
+	/**
+	 * Fetches the connection along with the object, with its default fields
+	 */
+	public Fields expand(ConnectionType connectionType) {
+		return expand(connectionType, 0, null);
+	}
+
+	/**
+	 * @param limit The most objects of the connection to fetch, 0 for facebook's default
+	 */
+	public Fields expand(ConnectionType connectionType, int limit) {
+		return expand(connectionType, limit, null);
+	}
+
+	/**
+	 * @param limit The most objects of the connection to fetch, 0 for facebook's default
+	 * @param fields The fields of the objects of the connection, null for their default fields. May expand further.
+	 */
+	public Fields expand(ConnectionType connectionType, int limit, Fields fields) {
+		if (limit < 0) {
+			throw new IllegalArgumentException("limit must not be negative: " + limit);
+		}
+		if (fields == this) {
+			throw new IllegalArgumentException("A connection can't expand into its own fields");
+		}
+		expansions.add(new Expansion(connectionType.getType(), limit, fields, false));
+		return this;
+	}
+
+	/**
+	 * Fetches only the total count of the connection, e.g. the number of likes, as
+	 * <code>likes.limit(0).summary(true)</code>
+	 */
+	public Fields summary(ConnectionType connectionType) {
+		expansions.add(new Expansion(connectionType.getType(), 0, null, true));
+		return this;
+	}
+
+	public boolean isEmpty() {
+		return names.isEmpty() && expansions.isEmpty();
+	}
+
+	/**
+	 * @return The value of the fields parameter
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		appendTo(builder);
+		return builder.toString();
+	}
+
+	private void appendTo(StringBuilder builder) {
+		int start = builder.length();
+		for (String name : names) {
+			if (builder.length() > start) {
+				builder.append(',');
+			}
+			builder.append(name);
+		}
+		for (Expansion expansion : expansions) {
+			if (builder.length() > start) {
+				builder.append(',');
+			}
+			builder.append(expansion.connection);
+			if (expansion.summary) {
+				builder.append(".limit(0).summary(true)");
+			} else if (expansion.limit > 0) {
+				builder.append(".limit(").append(expansion.limit).append(')');
+			}
+			if (expansion.fields != null && !expansion.fields.isEmpty()) {
+				builder.append('{');
+				expansion.fields.appendTo(builder);
+				builder.append('}');
+			}
+		}
+	}
+
+	private static class Expansion {
+
+		private final String connection;
+		private final int limit;
+		private final Fields fields;
+		private final boolean summary;
+
+		Expansion(String connection, int limit, Fields fields, boolean summary) {
+			this.connection = connection;
+			this.limit = limit;
+			this.fields = fields;
+			this.summary = summary;
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+package com.face4j.facebook;
+
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.util.Constants;
+
+/**
+ * Coalesces single id lookups ({@link Facebook#getUser(String)}, {@link Facebook#getPage(String)}) made by different
+ * threads within a short window into one "?ids=" request, the same request {@link Facebook#getUsers(String[])} makes.
+ * <br>
+ *
+ * The first thread to ask for an id opens a window and waits for it to elapse (or for the window to collect maxIds
+ * ids), then makes the call on behalf of every thread that joined. Lookups are only coalesced with lookups of the same
+ * type made with the same access token, so visibility never leaks between users. <br>
+ *
+ * If the combined call fails, or facebook leaves out one of the ids, the affected threads fall back to looking up their
+ * own id, so each caller still gets exactly the result or error it would have got without coalescing. <br>
+ *
+ * Opt in by setting an instance on {@link com.face4j.facebook.factory.FacebookFactory#setLookupCoalescer(LookupCoalescer)}.
+ * This class is thread safe, share one instance.
+ */
+public class LookupCoalescer {
+
+	private final long windowMillis;
+	private final int maxIds;
+
+	private final ConcurrentMap<String, Window<?>> windows = new ConcurrentHashMap<String, Window<?>>();
+
+	/**
+	 * @param windowMillis How long the first lookup waits for others to join
+	 * @param maxIds The call is made right away once this many ids have been collected, capped at
+	 *          {@link Constants#MAX_IDS_PER_REQUEST}
+	 */
+	public LookupCoalescer(long windowMillis, int maxIds) {
+		if (windowMillis < 0 || maxIds < 1) {
+			throw new IllegalArgumentException("windowMillis must be >= 0 and maxIds >= 1");
+		}
+		this.windowMillis = windowMillis;
+		this.maxIds = Math.min(maxIds, Constants.MAX_IDS_PER_REQUEST);
+	}
+
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	public int getMaxIds() {
+		return maxIds;
+	}
+
+	@SuppressWarnings("unchecked")
+	<E> E lookup(Facebook facebook, String id, Class<E> e, Type mapType) throws FacebookException {
+		String key = facebook.getAuthAccessToken().getAccessToken() + "|" + e.getName();
+
+		while (true) {
+			Window<E> window = (Window<E>) windows.get(key);
+			boolean leader = false;
+
+			if (window == null) {
+				window = new Window<E>();
+				leader = windows.putIfAbsent(key, window) == null;
+				if (!leader) {
+					continue;
+				}
+			}
+
+			if (!window.join(id)) {
+				// closed by its leader, which may not have removed it yet. Remove it here so that the retry opens or joins
+				// the next window instead of finding this one again until the leader gets to it.
+				windows.remove(key, window);
+				continue;
+			}
+
+			if (leader) {
+				window.awaitClose();
+				windows.remove(key, window);
+				window.fetch(facebook, e, mapType);
+			}
+
+			E result = window.get(id);
+			return (result != null) ? result : facebook.getObject(id, e);
+		}
+	}
+
+	/**
+	 * The ids collected for one combined call
+	 */
+	private class Window<E> {
+
+		private final Set<String> ids = new LinkedHashSet<String>();
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private boolean closed;
+		private Map<String, E> results;
+
+		synchronized boolean join(String id) {
+			if (closed) {
+				return false;
+			}
+			ids.add(id);
+			if (ids.size() >= maxIds) {
+				closed = true;
+				notifyAll();
+			}
+			return true;
+		}
+
+		synchronized void awaitClose() {
+			long deadline = System.currentTimeMillis() + windowMillis;
+			long remaining = windowMillis;
+			try {
+				while (!closed && remaining > 0) {
+					wait(remaining);
+					remaining = deadline - System.currentTimeMillis();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			closed = true;
+		}
+
+		void fetch(Facebook facebook, Class<E> type, Type mapType) {
+			try {
+				if (ids.size() > 1) {
+					results = facebook.getObjects(ids.toArray(new String[ids.size()]), type, mapType);
+				}
+			} catch (FacebookException e) {
+				// results stay null, every caller falls back to its own lookup and gets its own error
+			} finally {
+				done.countDown();
+			}
+		}
+
+		/**
+		 * @return The result for the id, null if it has to be looked up individually
+		 */
+		E get(String id) throws FacebookException {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new FacebookException("Interrupted while waiting for facebook!", e);
+			}
+			return (results == null) ? null : results.get(id);
+		}
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.face4j.facebook;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Result of a multi id lookup such as {@link Facebook#lookupUsers(String[])}. Results are in the same order as the ids
+ * that were asked for, ids that could not be fetched are reported individually.
+ *
+ * @param <E>
+ */
+public class LookupResult<E> {
+
+	private final String[] ids;
+	private final E[] results;
+	private final Map<String, FacebookException> errors = new LinkedHashMap<String, FacebookException>();
+	private final List<String> missingIds = new ArrayList<String>();
+
+	@SuppressWarnings("unchecked")
+	LookupResult(String[] ids, Class<E> e) {
+		this.ids = ids;
+		this.results = (E[]) Array.newInstance(e, ids.length);
+	}
+
+	/**
+	 * Fills in the results of the ids from index "from" (inclusive) to "to" (exclusive)
+	 */
+	void complete(int from, int to, Map<String, E> objects) {
+		for (int i = from; i < to; i++) {
+			E object = (objects == null) ? null : objects.get(ids[i]);
+			if (object == null) {
+				missingIds.add(ids[i]);
+			}
+			results[i] = object;
+		}
+	}
+
+	/**
+	 * Marks the ids from index "from" (inclusive) to "to" (exclusive) as failed
+	 */
+	void fail(int from, int to, FacebookException exception) {
+		for (int i = from; i < to; i++) {
+			errors.put(ids[i], exception);
+		}
+	}
+
+	/**
+	 * @return One entry per id asked for, in the same order. null where the id could not be fetched.
+	 */
+	public E[] getResults() {
+		return results;
+	}
+
+	/**
+	 * @return Ids facebook returned no data for
+	 */
+	public List<String> getMissingIds() {
+		return Collections.unmodifiableList(missingIds);
+	}
+
+	/**
+	 * @return Ids that could not be fetched because the request they were part of failed, with the error
+	 */
+	public Map<String, FacebookException> getErrors() {
+		return Collections.unmodifiableMap(errors);
+	}
+
+	/**
+	 * @return true if every id was fetched
+	 */
+	public boolean isComplete() {
+		return errors.isEmpty() && missingIds.isEmpty();
+	}
+
+}
@@ -0,0 +1,306 @@
+package com.face4j.facebook;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in memory {@link EntityCache} bounded by the total weight of the objects it holds, the length of the json they
+ * were read from. Each type is cached for its own time to live, types without one are not cached at all. For example
+ *
+ * <pre>
+ * MemoryEntityCache cache = new MemoryEntityCache(16 * 1024 * 1024);
+ * cache.setTtl(Page.class, 10, TimeUnit.MINUTES);
+ * cache.setShared(Page.class, true);
+ * cache.setTtl(User.class, 1, TimeUnit.MINUTES);
+ * facebookFactory.setEntityCache(cache);
+ * </pre>
+ *
+ * The cache is split into {@link #SEGMENTS} segments by key, each with its own lock and an equal share of the weight.
+ * When a segment is over its share the least recently used objects are evicted from it. Objects past their time to
+ * live are dropped when next asked for, or evicted like the others. <br>
+ *
+ * This class is thread safe, share one instance.
+ */
+public class MemoryEntityCache implements EntityCache {
+
+	public static final int SEGMENTS = 16;
+
+	private final long maxWeight;
+
+	private final Segment[] segments = new Segment[SEGMENTS];
+
+	private final ConcurrentMap<Class<?>, Long> ttls = new ConcurrentHashMap<Class<?>, Long>();
+
+	private final Set<Class<?>> shared = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong puts = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+
+	/**
+	 * @param maxWeight The most json characters, summed over the cached objects, to keep. An object heavier than a
+	 *          segment's share, maxWeight / {@link #SEGMENTS}, is not cached.
+	 */
+	public MemoryEntityCache(long maxWeight) {
+		if (maxWeight < SEGMENTS) {
+			throw new IllegalArgumentException("maxWeight must be at least " + SEGMENTS + ": " + maxWeight);
+		}
+		this.maxWeight = maxWeight;
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment(maxWeight / SEGMENTS);
+		}
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Caches objects of the type for the given time. Applies to objects cached afterwards.
+	 *
+	 * @param type
+	 * @param ttl 0 to stop caching the type
+	 * @param unit
+	 */
+	public void setTtl(Class<?> type, long ttl, TimeUnit unit) {
+		if (ttl < 0) {
+			throw new IllegalArgumentException("ttl must not be negative: " + ttl);
+		}
+		if (ttl == 0) {
+			ttls.remove(type);
+		} else {
+			ttls.put(type, unit.toNanos(ttl));
+		}
+	}
+
+	/**
+	 * @return The time to live of the type in milliseconds, 0 if it isn't cached
+	 */
+	public long getTtlMillis(Class<?> type) {
+		Long ttl = ttls.get(type);
+		return (ttl == null) ? 0 : TimeUnit.NANOSECONDS.toMillis(ttl);
+	}
+
+	/**
+	 * Only share types whose objects are public, e.g. pages, and fetch them with fields every user may see. A user
+	 * fetched with one user's token can hold fields, like the email, that other users must not see.
+	 *
+	 * @param type
+	 * @param shared true to cache one copy of an object for all access tokens
+	 */
+	public void setShared(Class<?> type, boolean shared) {
+		if (shared) {
+			this.shared.add(type);
+		} else {
+			this.shared.remove(type);
+		}
+	}
+
+	public boolean isShared(Class<?> type) {
+		return shared.contains(type);
+	}
+
+	public boolean isCached(Class<?> type) {
+		return ttls.containsKey(type);
+	}
+
+	public Object get(String key) {
+		Object entity = segmentFor(key).get(key);
+		if (entity == null) {
+			misses.incrementAndGet();
+		} else {
+			hits.incrementAndGet();
+		}
+		return entity;
+	}
+
+	public void put(String key, Object entity, int weight) {
+		Long ttl = ttls.get(entity.getClass());
+		if (ttl == null) {
+			return;
+		}
+		if (segmentFor(key).put(key, new Entry(entity, Math.max(weight, 1), System.nanoTime() + ttl))) {
+			puts.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Drops all cached objects, the counts are kept
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * @return Number of objects cached right now, including expired ones not dropped yet
+	 */
+	public int getSize() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return Total weight of the objects cached right now
+	 */
+	public long getWeight() {
+		long weight = 0;
+		for (Segment segment : segments) {
+			weight += segment.weight();
+		}
+		return weight;
+	}
+
+	/**
+	 * @return Number of lookups answered from the cache
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return Number of lookups that had to go to facebook
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return Hits as a fraction of all lookups, 0 before the first lookup
+	 */
+	public double getHitRate() {
+		long hitCount = hits.get();
+		long total = hitCount + misses.get();
+		return (total == 0) ? 0 : (double) hitCount / total;
+	}
+
+	/**
+	 * @return Number of objects cached
+	 */
+	public long getPutCount() {
+		return puts.get();
+	}
+
+	/**
+	 * @return Number of objects evicted to stay within the max weight
+	 */
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	/**
+	 * @return Number of objects dropped because they were asked for after their time to live
+	 */
+	public long getExpiredCount() {
+		return expirations.get();
+	}
+
+	@Override
+	public String toString() {
+		return "MemoryEntityCache[size=" + getSize() + ", weight=" + getWeight() + "/" + maxWeight + ", hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + ", expired=" + expirations + "]";
+	}
+
+	private Segment segmentFor(String key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments[hash & (SEGMENTS - 1)];
+	}
+
+	private static class Entry {
+
+		private final Object entity;
+		private final int weight;
+		private final long expiresAt;
+
+		Entry(Object entity, int weight, long expiresAt) {
+			this.entity = entity;
+			this.weight = weight;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(long now) {
+			return now - expiresAt > 0;
+		}
+	}
+
+	/**
+	 * Entries in access order, the least recently used first
+	 */
+	private class Segment {
+
+		private final long maxWeight;
+
+		private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+
+		private long weight;
+
+		Segment(long maxWeight) {
+			this.maxWeight = maxWeight;
+		}
+
+		synchronized Object get(String key) {
+			Entry entry = entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.isExpired(System.nanoTime())) {
+				entries.remove(key);
+				weight -= entry.weight;
+				expirations.incrementAndGet();
+				return null;
+			}
+			return entry.entity;
+		}
+
+		/**
+		 * @return false if the entry is too heavy to be cached
+		 */
+		synchronized boolean put(String key, Entry entry) {
+			if (entry.weight > maxWeight) {
+				return false;
+			}
+			Entry replaced = entries.put(key, entry);
+			if (replaced != null) {
+				weight -= replaced.weight;
+			}
+			weight += entry.weight;
+
+			Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+			while (weight > maxWeight) {
+				Entry evicted = eldest.next().getValue();
+				eldest.remove();
+				weight -= evicted.weight;
+				evictions.incrementAndGet();
+			}
+			return true;
+		}
+
+		synchronized void clear() {
+			entries.clear();
+			weight = 0;
+		}
+
+		synchronized int size() {
+			return entries.size();
+		}
+
+		synchronized long weight() {
+			return weight;
+		}
+	}
+
+}
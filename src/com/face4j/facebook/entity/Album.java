@@ -80,6 +80,12 @@ public class Album implements Serializable {
 	 */
 	private String privacy;
 	
+	private Photos photos;
+	
+	private Likes likes;
+	
+	private Comments comments;
+	
 	
 
 	/**
@@ -239,6 +245,45 @@ public class Album implements Serializable {
 	}
 	
 	
+	/**
+	 * The photos of the album, only set if they were expanded when fetching it, see {@link com.face4j.facebook.Fields}
+	 * 
+	 * @return
+	 */
+	public Photos getPhotos() {
+		return photos;
+	}
+	
+	public void setPhotos(Photos photos) {
+		this.photos = photos;
+	}
+	
+	/**
+	 * Only set if expanded when fetching the album
+	 * 
+	 * @return
+	 */
+	public Likes getLikes() {
+		return likes;
+	}
+	
+	public void setLikes(Likes likes) {
+		this.likes = likes;
+	}
+	
+	/**
+	 * Only set if expanded when fetching the album
+	 * 
+	 * @return
+	 */
+	public Comments getComments() {
+		return comments;
+	}
+	
+	public void setComments(Comments comments) {
+		this.comments = comments;
+	}
+	
 	/**
 	 * The photos contained in this album
 	 * PERMISSION: generic access_token or user_photos or friend_photos
@@ -317,6 +362,17 @@ public class Album implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.COMMENTS, Comments.class, paging);
 	}
 	
+	/**
+	 * The number of likes and comments on this album, without the likes and comments themselves
+	 * 
+	 * @param facebook
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Counts counts(Facebook facebook) throws FacebookException {
+		return facebook.getCounts(this.id);
+	}
+	
 	//TODO: implement picture connections
 	/*public String picture(Facebook facebook) throws FacebookException {
 		return facebook.getConnections(this.id, ConnectionType.PICTURE, String.class, null);
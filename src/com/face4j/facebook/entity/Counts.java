@@ -0,0 +1,65 @@
+package com.face4j.facebook.entity;
+
+import java.io.Serializable;
+
+/**
+ * The number of likes and comments of a post, photo, album or any other object with those connections, without the
+ * likes and comments themselves. See {@link com.face4j.facebook.Facebook#getCounts(String[])}.
+ */
+public class Counts implements Serializable {
+
+	private static final long serialVersionUID = 4163521785092714430L;
+
+	private String id;
+	private Total likes;
+	private Total comments;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	/**
+	 * @return 0 if the object has no likes connection
+	 */
+	public long getLikeCount() {
+		return (likes == null) ? 0 : likes.get();
+	}
+
+	/**
+	 * @return 0 if the object has no comments connection
+	 */
+	public long getCommentCount() {
+		return (comments == null) ? 0 : comments.get();
+	}
+
+	/**
+	 * A connection fetched with limit(0) and its summary, so without any of its data
+	 */
+	private static class Total implements Serializable {
+
+		private static final long serialVersionUID = -2460617880574802536L;
+
+		private Summary summary;
+
+		/**
+		 * Sent by older graph versions instead of the summary
+		 */
+		private long count;
+
+		long get() {
+			return (summary != null) ? summary.totalCount : count;
+		}
+	}
+
+	private static class Summary implements Serializable {
+
+		private static final long serialVersionUID = 7709337563611359187L;
+
+		private long totalCount;
+	}
+
+}
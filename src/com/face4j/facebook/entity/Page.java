@@ -1,12 +1,14 @@
 package com.face4j.facebook.entity;
 
 import java.io.Serializable;
+import java.util.Set;
 
 import com.face4j.facebook.Facebook;
 import com.face4j.facebook.entity.connection.*;
 import com.face4j.facebook.entity.paging.Paging;
 import com.face4j.facebook.enums.ConnectionType;
 import com.face4j.facebook.enums.PictureType;
+import com.face4j.facebook.enums.PostField;
 import com.face4j.facebook.exception.FacebookException;
 import com.face4j.facebook.util.Constants;
 
@@ -179,6 +181,19 @@ public class Page implements Serializable {
 	 */
 	public Feed feed(Facebook facebook, Paging paging) throws FacebookException{
 		return facebook.getConnections(this.id, ConnectionType.FEED, Feed.class, paging);
+	}
+	
+	/**
+	 * Same as {@link #feed(Facebook, Paging)} with only the given fields of each post
+	 * 
+	 * @param facebook
+	 * @param paging
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Feed feed(Facebook facebook, Paging paging, Set<PostField> fields) throws FacebookException {
+		return facebook.getConnections(this.id, ConnectionType.FEED, Feed.class, paging, fields);
 	} 
 	
 	/**
@@ -422,6 +437,19 @@ public class Page implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.POSTS, Posts.class, paging);
 	}
 	
+	/**
+	 * Same as {@link #posts(Facebook, Paging)} with only the given fields of each post
+	 * 
+	 * @param facebook
+	 * @param paging
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Posts posts(Facebook facebook, Paging paging, Set<PostField> fields) throws FacebookException {
+		return facebook.getConnections(this.id, ConnectionType.POSTS, Posts.class, paging, fields);
+	}
+	
 	/**
 	 * The events the Page is attending.
 	 * Permission: any valid access_token or user access_token
@@ -2,6 +2,9 @@ package com.face4j.facebook.entity;
 
 import java.io.Serializable;
 
+import com.face4j.facebook.entity.connection.Comments;
+import com.face4j.facebook.entity.connection.Likes;
+
 /**
  * 
  * An individual photo as represented in the Graph API.
@@ -34,6 +37,8 @@ public class Photo implements Serializable {
 	private String createdTime;
 	private String updatedTime;
 	private Integer position;
+	private Comments comments;
+	private Likes likes;
 
 	/**
 	 * The photo ID
@@ -244,8 +249,33 @@ public class Photo implements Serializable {
 		this.picture = picture;
 	}
 	
-	//TODO: Connection - comments
-	//TODO: Connection - likes
+	/**
+	 * The comments on the photo, only set if they were expanded when fetching it, see
+	 * {@link com.face4j.facebook.Fields}
+	 * 
+	 * @return
+	 */
+	public Comments getComments() {
+		return comments;
+	}
+
+	public void setComments(Comments comments) {
+		this.comments = comments;
+	}
+
+	/**
+	 * Only set if expanded when fetching the photo
+	 * 
+	 * @return
+	 */
+	public Likes getLikes() {
+		return likes;
+	}
+
+	public void setLikes(Likes likes) {
+		this.likes = likes;
+	}
+	
 	//TODO: Connection - picture
 	//TODO: Connection - tags
 	
@@ -286,6 +286,18 @@ public class Post implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.LIKES, Likes.class, paging);
 	}
 
+	/**
+	 * The number of likes and comments on this post, without the likes and comments themselves. Use
+	 * {@link Facebook#getCounts(String[])} for many posts at once.
+	 * 
+	 * @param facebook
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Counts getCounts(Facebook facebook) throws FacebookException {
+		return facebook.getCounts(this.id);
+	}
+
 	/**
 	 * All of the comments on this post
 	 * 
@@ -7,6 +7,7 @@ import org.apache.commons.httpclient.NameValuePair;
 import com.face4j.facebook.Facebook;
 import com.face4j.facebook.exception.FacebookException;
 import com.face4j.facebook.util.Constants;
+import com.face4j.facebook.util.Endpoint;
 
 public class Tab implements Serializable {
 
@@ -139,7 +140,7 @@ public class Tab implements Serializable {
 	 */
 	public Tab getTab(String pageId, String tabId, Facebook facebook) throws FacebookException {
 		NameValuePair[] nameValuePairs = { new NameValuePair(Constants.PARAM_ACCESS_TOKEN, facebook.getAuthAccessToken().getAccessToken()) };
-		return facebook.pullData(Constants.FACEBOOK_GRAPH_URL + "/" + pageId + "/tabs/"+tabId, Tab.class, nameValuePairs);
+		return facebook.pullData(Endpoint.TAB.url(pageId, tabId), Tab.class, nameValuePairs);
 	}
 
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package com.face4j.facebook.entity;
 
 import java.io.Serializable;
+import java.util.Set;
 
 import com.face4j.facebook.Facebook;
 import com.face4j.facebook.entity.connection.*;
 import com.face4j.facebook.entity.paging.Paging;
 import com.face4j.facebook.enums.ConnectionType;
+import com.face4j.facebook.enums.PageField;
 import com.face4j.facebook.enums.PictureType;
+import com.face4j.facebook.enums.PostField;
+import com.face4j.facebook.enums.UserField;
 import com.face4j.facebook.exception.FacebookException;
 import com.face4j.facebook.util.Constants;
 import com.face4j.facebook.util.URLMaker;
@@ -85,6 +89,14 @@ public class User implements Serializable {
 
 	private Hometown hometown;
 	
+	private Friends friends;
+	
+	private Likes likes;
+	
+	private Photos photos;
+	
+	private Albums albums;
+	
 	/**For Gson*/
 	@SuppressWarnings("unused")
 	private User(){}
@@ -208,6 +220,59 @@ public class User implements Serializable {
 	public void setHometown(Hometown hometown) {
 		this.hometown = hometown;
 	}
+	
+	/**
+	 * The user's friends, only set if they were expanded when fetching the user, see
+	 * {@link com.face4j.facebook.Fields}. Use {@link #friends(Facebook)} to fetch them.
+	 * 
+	 * @return
+	 */
+	public Friends getFriends() {
+		return friends;
+	}
+	
+	public void setFriends(Friends friends) {
+		this.friends = friends;
+	}
+	
+	/**
+	 * The pages the user has liked, only set if they were expanded when fetching the user
+	 * 
+	 * @return
+	 */
+	public Likes getLikes() {
+		return likes;
+	}
+	
+	public void setLikes(Likes likes) {
+		this.likes = likes;
+	}
+	
+	/**
+	 * The photos the user is tagged in, only set if they were expanded when fetching the user
+	 * 
+	 * @return
+	 */
+	public Photos getPhotos() {
+		return photos;
+	}
+	
+	public void setPhotos(Photos photos) {
+		this.photos = photos;
+	}
+	
+	/**
+	 * The user's albums, only set if they were expanded when fetching the user
+	 * 
+	 * @return
+	 */
+	public Albums getAlbums() {
+		return albums;
+	}
+	
+	public void setAlbums(Albums albums) {
+		this.albums = albums;
+	}
 
 	/**
 	 * A list of the work history from the user's profile
@@ -687,6 +752,19 @@ public class User implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.FEED, Feed.class, paging);
 	}
 	
+	/**
+	 * Same as {@link #feed(Facebook, Paging)} with only the given fields of each post
+	 * 
+	 * @param facebook
+	 * @param paging
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Feed feed(Facebook facebook, Paging paging, Set<PostField> fields) throws FacebookException {
+		return facebook.getConnections(this.id, ConnectionType.FEED, Feed.class, paging, fields);
+	}
+	
 	/**
 	 * The user's friend lists
 	 * PERMISSION: read_friendlists
@@ -737,6 +815,19 @@ public class User implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.FRIENDS, Friends.class, paging);
 	}
 	
+	/**
+	 * Same as {@link #friends(Facebook, Paging)} with only the given fields of each friend
+	 * 
+	 * @param facebook
+	 * @param paging
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Friends friends(Facebook facebook, Paging paging, Set<UserField> fields) throws FacebookException {
+		return facebook.getConnections(this.id, ConnectionType.FRIENDS, Friends.class, paging, fields);
+	}
+	
 	/**
 	 * The Groups that the user belongs to
 	 * PERMISSION: user_groups or friends_groups
@@ -786,6 +877,19 @@ public class User implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.HOME, Home.class, paging);
 	}
 	
+	/**
+	 * Same as {@link #home(Facebook, Paging)} with only the given fields of each post
+	 * 
+	 * @param facebook
+	 * @param paging
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Home home(Facebook facebook, Paging paging, Set<PostField> fields) throws FacebookException {
+		return facebook.getConnections(this.id, ConnectionType.HOME, Home.class, paging, fields);
+	}
+	
 	/**
 	 * The Threads in this user's inbox
 	 * PERMISSION: read_mailbox
@@ -864,6 +968,19 @@ public class User implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.LIKES, Likes.class, paging);
 	}
 	
+	/**
+	 * Same as {@link #likes(Facebook, Paging)} with only the given fields of each liked page
+	 * 
+	 * @param facebook
+	 * @param paging
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Likes likes(Facebook facebook, Paging paging, Set<PageField> fields) throws FacebookException {
+		return facebook.getConnections(this.id, ConnectionType.LIKES, Likes.class, paging, fields);
+	}
+	
 	/**
 	 * The user's posted links
 	 * PERMISSION: read_stream
@@ -1097,6 +1214,19 @@ public class User implements Serializable {
 		return facebook.getConnections(this.id, ConnectionType.POSTS, Posts.class, paging);
 	}
 	
+	/**
+	 * Same as {@link #posts(Facebook, Paging)} with only the given fields of each post
+	 * 
+	 * @param facebook
+	 * @param paging
+	 * @param fields
+	 * @return
+	 * @throws FacebookException
+	 */
+	public Posts posts(Facebook facebook, Paging paging, Set<PostField> fields) throws FacebookException {
+		return facebook.getConnections(this.id, ConnectionType.POSTS, Posts.class, paging, fields);
+	}
+	
 	/**
 	 * The user's status updates
 	 * PERMISSION: read_stream
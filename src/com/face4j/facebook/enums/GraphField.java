@@ -0,0 +1,14 @@
+package com.face4j.facebook.enums;
+
+/**
+ * A field of a graph object that can be asked for with the fields parameter, see {@link UserField},
+ * {@link PageField} and {@link PostField}
+ */
+public interface GraphField {
+
+	/**
+	 * @return The name of the field in the json, e.g. "updated_time"
+	 */
+	public String getFieldName();
+
+}
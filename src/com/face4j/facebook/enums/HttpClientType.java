@@ -2,6 +2,18 @@ package com.face4j.facebook.enums;
 
 public enum HttpClientType {
 	
-	APACHE_HTTP_CLIENT, URL_FETCH_SERVICE;
+	APACHE_HTTP_CLIENT, URL_FETCH_SERVICE, 
+	
+	/**
+	 * Selector based non blocking client. A single I/O thread drives every request in flight
+	 */
+	ASYNC_NIO,
+	
+	/**
+	 * The java.net.http client in HTTP/2 mode: concurrent requests are multiplexed over one connection per host. Also
+	 * available as a future based caller. Needs Java 11 or later and face4j built with src-java11, otherwise asking
+	 * for it throws UnsupportedOperationException.
+	 */
+	JDK_HTTP_CLIENT;
 
 }
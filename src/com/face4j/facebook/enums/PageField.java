@@ -0,0 +1,29 @@
+package com.face4j.facebook.enums;
+
+import java.util.Locale;
+
+/**
+ * The fields of a {@link com.face4j.facebook.entity.Page}. Pass a set of them, e.g.
+ * <code>EnumSet.of(PageField.ID, PageField.NAME, PageField.LIKES)</code>,
+ * to have facebook send only those fields; the other fields of the returned objects are left unset.
+ */
+public enum PageField implements GraphField {
+
+	ID, NAME, LINK, CATEGORY, LIKES, PHONE, CHECKINS, ACCESS_TOKEN;
+
+	private final String fieldName;
+
+	private PageField() {
+		this.fieldName = name().toLowerCase(Locale.ENGLISH);
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	@Override
+	public String toString() {
+		return fieldName;
+	}
+
+}
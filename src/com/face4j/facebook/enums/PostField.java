@@ -0,0 +1,31 @@
+package com.face4j.facebook.enums;
+
+import java.util.Locale;
+
+/**
+ * The fields of a {@link com.face4j.facebook.entity.Post}. Pass a set of them, e.g.
+ * <code>EnumSet.of(PostField.ID, PostField.FROM, PostField.UPDATED_TIME)</code>,
+ * to have facebook send only those fields; the other fields of the returned objects are left unset.
+ */
+public enum PostField implements GraphField {
+
+	ID, FROM, TO, MESSAGE, PICTURE, LINK, NAME, CAPTION,
+	DESCRIPTION, SOURCE, PROPERTIES, ICON, ACTIONS, PRIVACY, TYPE, LIKES,
+	COMMENTS, OBJECT_ID, APPLICATION, CREATED_TIME, UPDATED_TIME, TARGETING;
+
+	private final String fieldName;
+
+	private PostField() {
+		this.fieldName = name().toLowerCase(Locale.ENGLISH);
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	@Override
+	public String toString() {
+		return fieldName;
+	}
+
+}
@@ -0,0 +1,37 @@
+package com.face4j.facebook.enums;
+
+import java.util.Locale;
+
+/**
+ * The fields of a {@link com.face4j.facebook.entity.User}. Pass a set of them, e.g.
+ * <code>EnumSet.of(UserField.ID, UserField.NAME, UserField.UPDATED_TIME)</code>,
+ * to have facebook send only those fields; the other fields of the returned objects are left unset.
+ */
+public enum UserField implements GraphField {
+
+	ID, FIRST_NAME, MIDDLE_NAME, LAST_NAME, NAME, GENDER, LOCALE, LANGUAGES,
+	LINK, USERNAME, THIRD_PARTY_ID, TIMEZONE, UPDATED_TIME, VERIFIED, BIO, INTERESTED_IN,
+	LOCATION, POLITICAL, QUOTES, RELATIONSHIP_STATUS, RELIGION, SIGNIFICANT_OTHER, VIDEO_UPLOAD_LIMITS, BIRTHDAY,
+	WORK, EDUCATION, EMAIL, WEBSITE, HOMETOWN,
+
+	/**
+	 * Connections, see {@link com.face4j.facebook.Fields} to expand them with a limit and fields of their own
+	 */
+	FRIENDS, LIKES, PHOTOS, ALBUMS;
+
+	private final String fieldName;
+
+	private UserField() {
+		this.fieldName = name().toLowerCase(Locale.ENGLISH);
+	}
+
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	@Override
+	public String toString() {
+		return fieldName;
+	}
+
+}
@@ -0,0 +1,34 @@
+package com.face4j.facebook.exception;
+
+/**
+ * Thrown without calling facebook while the circuit breaker of the endpoint is open, that is while the endpoint is
+ * failing or too slow
+ */
+public class CircuitOpenException extends FacebookException {
+
+	private static final long serialVersionUID = 4310725960183525104L;
+
+	private final String endpoint;
+	private final long retryAfterMillis;
+
+	public CircuitOpenException(String endpoint, long retryAfterMillis) {
+		super("The circuit to " + endpoint + " is open, not calling it for another " + retryAfterMillis + "ms", null);
+		this.endpoint = endpoint;
+		this.retryAfterMillis = retryAfterMillis;
+	}
+
+	/**
+	 * The host the call was for
+	 */
+	public String getEndpoint() {
+		return endpoint;
+	}
+
+	/**
+	 * Time until the breaker lets the next probe call through, 0 if probe calls are being made right now
+	 */
+	public long getRetryAfterMillis() {
+		return retryAfterMillis;
+	}
+
+}
@@ -9,6 +9,8 @@ public class FacebookError implements Serializable {
 	private int errorCode;
 	private String errorMsg;
 	private RequestArg[] requestArgs;
+	private int httpStatusCode;
+	private int facebookErrorCode;
 
 	/* Keeping a no args constructor*/
 	private FacebookError() {
@@ -22,6 +24,24 @@ public class FacebookError implements Serializable {
 		this.requestArgs = requestArgs;
 	}
 
+	/**
+	 * @param httpStatusCode Status of the http response that carried the error
+	 */
+	public FacebookError(int errorCode, String errorMsg, RequestArg[] requestArgs, int httpStatusCode) {
+		this(errorCode, errorMsg, requestArgs);
+		this.httpStatusCode = httpStatusCode;
+	}
+
+	/**
+	 * @param httpStatusCode Status of the http response that carried the error
+	 * @param facebookErrorCode The code facebook sent in the body of that response, 0 if none
+	 */
+	public FacebookError(int errorCode, String errorMsg, RequestArg[] requestArgs, int httpStatusCode,
+			int facebookErrorCode) {
+		this(errorCode, errorMsg, requestArgs, httpStatusCode);
+		this.facebookErrorCode = facebookErrorCode;
+	}
+
 
 
 	public int getErrorCode() {
@@ -36,4 +56,20 @@ public class FacebookError implements Serializable {
 		return requestArgs;
 	}
 
+	/**
+	 * The http status of the response that carried the error, 0 if it came in the body of a successful (200) response
+	 */
+	public int getHttpStatusCode() {
+		return httpStatusCode;
+	}
+
+	/**
+	 * The code facebook sent in the body, e.g. 4 when the app's request limit is reached, 0 if it sent none. The same as
+	 * {@link #getErrorCode()} for errors in the body of a successful response, whose error code is always facebook's;
+	 * for other responses the error code is the http status.
+	 */
+	public int getFacebookErrorCode() {
+		return (httpStatusCode == 0) ? errorCode : facebookErrorCode;
+	}
+
 }
@@ -8,6 +8,7 @@ public class GenericError implements Serializable {
 
 	private String type;
 	private String message;
+	private int code;
 
 	public String getType() {
 		return type;
@@ -17,4 +18,11 @@ public class GenericError implements Serializable {
 		return message;
 	}
 
+	/**
+	 * The graph api error code, 0 if facebook didn't send one
+	 */
+	public int getCode() {
+		return code;
+	}
+
 }
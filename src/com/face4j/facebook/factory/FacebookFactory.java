@@ -3,20 +3,34 @@ package com.face4j.facebook.factory;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.commons.httpclient.NameValuePair;
 
 import com.face4j.facebook.Client;
+import com.face4j.facebook.EntityCache;
 import com.face4j.facebook.Facebook;
+import com.face4j.facebook.LookupCoalescer;
 import com.face4j.facebook.OAuthAccessToken;
 import com.face4j.facebook.enums.Display;
 import com.face4j.facebook.enums.HttpClientType;
 import com.face4j.facebook.enums.Permission;
 import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.http.APICaller;
 import com.face4j.facebook.http.APICallerFactory;
 import com.face4j.facebook.http.APICallerInterface;
+import com.face4j.facebook.http.CircuitBreaker;
+import com.face4j.facebook.http.CircuitBreakerAPICaller;
+import com.face4j.facebook.http.ConcurrencyLimitedAPICaller;
+import com.face4j.facebook.http.ConcurrencyLimiter;
+import com.face4j.facebook.http.HedgedAPICaller;
+import com.face4j.facebook.http.HedgingPolicy;
+import com.face4j.facebook.http.RateLimitedAPICaller;
+import com.face4j.facebook.http.RateLimiter;
+import com.face4j.facebook.http.SingleFlightAPICaller;
+import com.face4j.facebook.http.TransportConfig;
 import com.face4j.facebook.util.Constants;
 
 /**
@@ -30,7 +44,17 @@ public class FacebookFactory extends OAuthFactory implements Serializable {
 	
 	private Client client;
 	private HttpClientType httpClientType;
+	private APICallerInterface transportCaller;
 	private APICallerInterface caller; 
+	private transient LookupCoalescer lookupCoalescer;
+	private transient ExecutorService lookupExecutor;
+	private transient EntityCache entityCache;
+	private boolean lazyFqlPosts;
+	private boolean singleFlightGets;
+	private transient RateLimiter rateLimiter;
+	private transient ConcurrencyLimiter concurrencyLimiter;
+	private transient CircuitBreaker circuitBreaker;
+	private transient HedgingPolicy hedgingPolicy;
 	
 	Logger logger = Logger.getLogger(Facebook.class.getName());
 	
@@ -49,20 +73,220 @@ public class FacebookFactory extends OAuthFactory implements Serializable {
 	public FacebookFactory(Client client, HttpClientType clientType){
 		this.client = client;
 		this.httpClientType = clientType;
-		caller = APICallerFactory.getAPICallerInstance(clientType);
+		// every factory has its own connection pools
+		transportCaller = caller = APICallerFactory.newAPICallerInstance(clientType);
+	}
+	
+	/**
+	 * Uses the apache http client with connection pools of the given sizes
+	 * @param client
+	 * @param graphMaxConnections Connections to graph.facebook.com
+	 * @param fqlMaxConnections Connections to api.facebook.com, used by the fql methods
+	 */
+	public FacebookFactory(Client client, int graphMaxConnections, int fqlMaxConnections){
+		this.client = client;
+		this.httpClientType = HttpClientType.APACHE_HTTP_CLIENT;
+		transportCaller = caller = new APICaller(graphMaxConnections, fqlMaxConnections);
+	}
+	
+	/**
+	 * The Facebook instances created by this factory share a caller set up with the given transport config
+	 * @param client
+	 * @param clientType
+	 * @param transportConfig Timeouts, pool sizes, socket options and proxy
+	 */
+	public FacebookFactory(Client client, HttpClientType clientType, TransportConfig transportConfig){
+		this.client = client;
+		this.httpClientType = clientType;
+		transportCaller = caller = APICallerFactory.newAPICallerInstance(clientType, transportConfig);
 	}
 	
 	public HttpClientType getHttpClientType() {
 		return httpClientType;
 	}
 
+	/**
+	 * Replaces the caller of this factory with a new one of the same client type set up with the given transport config,
+	 * and shuts the old one down. Applies to the instances created afterwards, the ones created before keep the old
+	 * caller, which opens new connections if they use it again.
+	 * @param transportConfig
+	 */
+	public void setTransportConfig(TransportConfig transportConfig) {
+		APICallerInterface replaced = transportCaller;
+		transportCaller = APICallerFactory.newAPICallerInstance(httpClientType, transportConfig);
+		updateCaller();
+		APICallerFactory.shutdown(replaced);
+	}
+	
+	/**
+	 * Closes the connections and stops the threads of this factory's caller. Call it once the factory and the Facebook
+	 * instances it created are no longer used, e.g. when the application is undeployed.
+	 */
+	public void shutdown() {
+		APICallerFactory.shutdown(transportCaller);
+	}
+
 	/**
 	 * Returns a new instance of Facebook pertaining to the authenticated user 
 	 * @param accessToken
 	 * @return Facebook instance 
 	 */
 	public Facebook getInstance(OAuthAccessToken accessToken){
-		return new Facebook(accessToken,httpClientType);
+		Facebook facebook = new Facebook(accessToken,caller);
+		facebook.setLookupCoalescer(lookupCoalescer);
+		facebook.setLookupExecutor(lookupExecutor);
+		facebook.setEntityCache(entityCache);
+		facebook.setLazyFqlPosts(lazyFqlPosts);
+		return facebook;
+	}
+	
+	/**
+	 * Opt in to coalescing concurrent getUser/getPage lookups of all Facebook instances created by this factory. Pass
+	 * null to turn it off again.
+	 * @param lookupCoalescer
+	 */
+	public void setLookupCoalescer(LookupCoalescer lookupCoalescer) {
+		this.lookupCoalescer = lookupCoalescer;
+	}
+	
+	public LookupCoalescer getLookupCoalescer() {
+		return lookupCoalescer;
+	}
+	
+	/**
+	 * Bounded executor on which the Facebook instances created by this factory fetch the chunks of large
+	 * getUsers/getPages lookups in parallel. See {@link Facebook#setLookupExecutor(ExecutorService)}
+	 * @param lookupExecutor
+	 */
+	public void setLookupExecutor(ExecutorService lookupExecutor) {
+		this.lookupExecutor = lookupExecutor;
+	}
+	
+	public ExecutorService getLookupExecutor() {
+		return lookupExecutor;
+	}
+	
+	/**
+	 * Cache shared by the Facebook instances created by this factory, so that an object one of them fetched is served
+	 * to the others without calling facebook again, see {@link com.face4j.facebook.MemoryEntityCache}. Pass null to
+	 * turn it off again.
+	 * @param entityCache
+	 */
+	public void setEntityCache(EntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+	
+	public EntityCache getEntityCache() {
+		return entityCache;
+	}
+	
+	/**
+	 * See {@link Facebook#setLazyFqlPosts(boolean)}
+	 * @param lazyFqlPosts
+	 */
+	public void setLazyFqlPosts(boolean lazyFqlPosts) {
+		this.lazyFqlPosts = lazyFqlPosts;
+	}
+	
+	public boolean isLazyFqlPosts() {
+		return lazyFqlPosts;
+	}
+	
+	/**
+	 * Opt in to sharing one request between identical GETs that Facebook instances created by this factory make at the
+	 * same time, see {@link SingleFlightAPICaller}. Applies to the instances created afterwards.
+	 * @param singleFlightGets
+	 */
+	public void setSingleFlightGets(boolean singleFlightGets) {
+		this.singleFlightGets = singleFlightGets;
+		updateCaller();
+	}
+	
+	public boolean isSingleFlightGets() {
+		return singleFlightGets;
+	}
+	
+	/**
+	 * Opt in to limiting the rate at which the Facebook instances created by this factory call facebook, see
+	 * {@link RateLimiter}. Applies to the instances created afterwards, pass null to turn it off again.
+	 * @param rateLimiter
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+		updateCaller();
+	}
+	
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+	
+	/**
+	 * Opt in to an adaptive limit on the requests in flight to each host, see {@link ConcurrencyLimiter}. Applies to the
+	 * instances created afterwards, pass null to turn it off again.
+	 * @param concurrencyLimiter
+	 */
+	public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+		this.concurrencyLimiter = concurrencyLimiter;
+		updateCaller();
+	}
+	
+	public ConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+	
+	/**
+	 * Opt in to failing calls fast while graph.facebook.com or api.facebook.com is failing or too slow, see
+	 * {@link CircuitBreaker}. Applies to the instances created afterwards, pass null to turn it off again.
+	 * @param circuitBreaker
+	 */
+	public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+		updateCaller();
+	}
+	
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+	
+	/**
+	 * Opt in to sending a second copy of GETs that are slow to be answered, see {@link HedgingPolicy}. Applies to the
+	 * instances created afterwards, pass null to turn it off again.
+	 * @param hedgingPolicy
+	 */
+	public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+		this.hedgingPolicy = hedgingPolicy;
+		updateCaller();
+	}
+	
+	public HedgingPolicy getHedgingPolicy() {
+		return hedgingPolicy;
+	}
+	
+	/**
+	 * Wraps the transport in the layers that have been opted in to. Identical GETs are coalesced before they take a
+	 * permit from the rate limiter, so that they take only one, and a call waiting for a rate permit doesn't hold a
+	 * concurrency slot. An open circuit fails calls before they wait for either, and the breaker leaves the time spent
+	 * waiting in them out of a call's duration. A hedged request goes through the breaker and the limiters like any
+	 * other.
+	 */
+	private void updateCaller() {
+		APICallerInterface layered = transportCaller;
+		if(concurrencyLimiter != null){
+			layered = new ConcurrencyLimitedAPICaller(layered, concurrencyLimiter);
+		}
+		if(rateLimiter != null){
+			layered = new RateLimitedAPICaller(layered, rateLimiter);
+		}
+		if(circuitBreaker != null){
+			layered = new CircuitBreakerAPICaller(layered, circuitBreaker);
+		}
+		if(hedgingPolicy != null){
+			layered = new HedgedAPICaller(layered, hedgingPolicy);
+		}
+		if(singleFlightGets){
+			layered = new SingleFlightAPICaller(layered);
+		}
+		caller = layered;
 	}
 
 	
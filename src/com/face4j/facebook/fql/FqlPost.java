@@ -1,8 +1,12 @@
 package com.face4j.facebook.fql;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.List;
 
+import com.face4j.facebook.util.JSONToObjectTransformer;
+
 public class FqlPost implements Serializable {
 
 	private static final long serialVersionUID = 6550520319195729998L;
@@ -25,6 +29,10 @@ public class FqlPost implements Serializable {
 	private FqlLikes likes;
 	private FqlPrivacy privacy;
 	
+	// raw json of the fields above when the post was read lazily, bound on first access. Volatile so that the getters
+	// only lock to bind, posts read eagerly never lock.
+	private transient volatile String attachmentJson, commentsJson, likesJson, privacyJson;
+	
 	@Deprecated
 	private String type;
 	
@@ -296,6 +304,15 @@ public class FqlPost implements Serializable {
 	 * @return
 	 */
 	public FqlAttachment getAttachment() {
+		if (attachmentJson != null) {
+			synchronized (this) {
+				String json = attachmentJson;
+				if (json != null) {
+					attachment = JSONToObjectTransformer.getLazyObject(json, FqlAttachment.class);
+					attachmentJson = null;
+				}
+			}
+		}
 		return attachment;
 	}
 
@@ -307,6 +324,19 @@ public class FqlPost implements Serializable {
 	 */
 	public void setAttachment(FqlAttachment attachment) {
 		this.attachment = attachment;
+		if (attachmentJson != null) {
+			attachmentJson = null;
+		}
+	}
+
+	/**
+	 * Sets the attachment as raw json, it is bound on the first call to {@link #getAttachment()}
+	 * 
+	 * @param attachmentJson
+	 */
+	public void setAttachmentJson(String attachmentJson) {
+		this.attachment = null;
+		this.attachmentJson = attachmentJson;
 	}
 
 	/**
@@ -324,6 +354,15 @@ public class FqlPost implements Serializable {
 	 * @return
 	 */
 	public FqlComments getComments() {
+		if (commentsJson != null) {
+			synchronized (this) {
+				String json = commentsJson;
+				if (json != null) {
+					comments = JSONToObjectTransformer.getLazyObject(json, FqlComments.class);
+					commentsJson = null;
+				}
+			}
+		}
 		return comments;
 	}
 
@@ -343,6 +382,19 @@ public class FqlPost implements Serializable {
 	 */
 	public void setComments(FqlComments comments) {
 		this.comments = comments;
+		if (commentsJson != null) {
+			commentsJson = null;
+		}
+	}
+
+	/**
+	 * Sets the comments as raw json, it is bound on the first call to {@link #getComments()}
+	 * 
+	 * @param commentsJson
+	 */
+	public void setCommentsJson(String commentsJson) {
+		this.comments = null;
+		this.commentsJson = commentsJson;
 	}
 
 	/**
@@ -358,6 +410,15 @@ public class FqlPost implements Serializable {
 	 * @return
 	 */
 	public FqlLikes getLikes() {
+		if (likesJson != null) {
+			synchronized (this) {
+				String json = likesJson;
+				if (json != null) {
+					likes = JSONToObjectTransformer.getLazyObject(json, FqlLikes.class);
+					likesJson = null;
+				}
+			}
+		}
 		return likes;
 	}
 
@@ -376,6 +437,19 @@ public class FqlPost implements Serializable {
 	 */
 	public void setLikes(FqlLikes likes) {
 		this.likes = likes;
+		if (likesJson != null) {
+			likesJson = null;
+		}
+	}
+
+	/**
+	 * Sets the likes as raw json, it is bound on the first call to {@link #getLikes()}
+	 * 
+	 * @param likesJson
+	 */
+	public void setLikesJson(String likesJson) {
+		this.likes = null;
+		this.likesJson = likesJson;
 	}
 
 	/**
@@ -384,6 +458,15 @@ public class FqlPost implements Serializable {
 	 * @return
 	 */
 	public FqlPrivacy getPrivacy() {
+		if (privacyJson != null) {
+			synchronized (this) {
+				String json = privacyJson;
+				if (json != null) {
+					privacy = JSONToObjectTransformer.getLazyObject(json, FqlPrivacy.class);
+					privacyJson = null;
+				}
+			}
+		}
 		return privacy;
 	}
 
@@ -394,6 +477,19 @@ public class FqlPost implements Serializable {
 	 */
 	public void setPrivacy(FqlPrivacy privacy) {
 		this.privacy = privacy;
+		if (privacyJson != null) {
+			privacyJson = null;
+		}
+	}
+
+	/**
+	 * Sets the privacy as raw json, it is bound on the first call to {@link #getPrivacy()}
+	 * 
+	 * @param privacyJson
+	 */
+	public void setPrivacyJson(String privacyJson) {
+		this.privacy = null;
+		this.privacyJson = privacyJson;
 	}
 
 	public List<Long> getTaggedIds() {
@@ -516,6 +612,15 @@ public class FqlPost implements Serializable {
 	 * public void setAppData(FQL_AppData appData) { this.appData = appData; }
 	 */
 
-	
-	
+	/**
+	 * Binds whatever is still raw json, which isn't serialized
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getAttachment();
+		getComments();
+		getLikes();
+		getPrivacy();
+		out.defaultWriteObject();
+	}
+
 }
@@ -0,0 +1,21 @@
+package com.face4j.facebook.fql;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Receives the rows of an fql query one at a time, as they are read from the response. Only the row being handled is
+ * kept in memory, so result sets of any size can be processed.
+ * 
+ * @param <E> The row type, e.g. {@link FqlPost}
+ */
+public interface FqlRowHandler<E> {
+
+	/**
+	 * Called once per row, in the order facebook returns them. Throwing stops reading the response.
+	 * 
+	 * @param row
+	 * @throws FacebookException
+	 */
+	public void handleRow(E row) throws FacebookException;
+
+}
@@ -1,15 +1,18 @@
 package com.face4j.facebook.http;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.util.Enumeration;
-import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.httpclient.Credentials;
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
+import org.apache.commons.httpclient.HttpMethodBase;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.NameValuePair;
@@ -18,6 +21,8 @@ import org.apache.commons.httpclient.auth.AuthScope;
 import org.apache.commons.httpclient.methods.DeleteMethod;
 import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
 
 import com.face4j.facebook.exception.FacebookException;
 import com.face4j.facebook.util.JSONToObjectTransformer;
@@ -27,59 +32,214 @@ import com.face4j.facebook.util.JSONToObjectTransformer;
  * @author nischal.shetty
  *
  */
-public class APICaller implements APICallerInterface {
+public class APICaller implements StreamingAPICallerInterface {
+	
+	/**
+	 * Default size of each of the graph and fql connection pools
+	 */
+	public static final int DEFAULT_MAX_CONNECTIONS = 15;
+	
+	private static final String GRAPH_HOST = "graph.facebook.com";
+	private static final String API_HOST = "api.facebook.com";
 	
 	private static final APICaller caller = new APICaller();
-	private static HttpClient httpClient = null;
 	
-	private APICaller(){
-		
+	private final TransportConfig config;
+	
+	private final TransferStats transferStats = new TransferStats();
+	
+	/**
+	 * Created on first use, without locking
+	 */
+	private final AtomicReference<Transport> transport = new AtomicReference<Transport>();
+	
+	/**
+	 * Creates a caller with its own connection pools and the default {@link TransportConfig}
+	 */
+	public APICaller(){
+		this(new TransportConfig());
 	}
 	
-	private synchronized static HttpClient getHttpClient() {
-		if(null==httpClient){
-			MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
-			connectionManager.getParams().setMaxConnectionsPerHost(HostConfiguration.ANY_HOST_CONFIGURATION, 15);
-			connectionManager.getParams().setMaxTotalConnections(15);
-			httpClient = new HttpClient(connectionManager);
-			
-			String username = null;
-			String password = null;
-			String host = null;
-			int port = -1;
-			Credentials credentials = null;
-			
-			//Check if username and password exists in any resource file
-			try {
-				InputStream inputStream = ClassLoader.getSystemResourceAsStream("face4j.properties");
-				Properties properties = new Properties();
-				properties.load(inputStream);
-				inputStream.close();
-				
-				username = properties.getProperty("client.proxy.username");
-				password = properties.getProperty("client.proxy.password");
-				host = properties.getProperty("client.proxy.host");
-				if(properties.getProperty("client.proxy.port") != null){
-					port = Integer.parseInt(properties.getProperty("client.proxy.port"));
-				}
-			} catch (FileNotFoundException e) {
-				e.printStackTrace();
-			} catch (IOException e) {
-				e.printStackTrace();
+	/**
+	 * Creates a caller with its own connection pools of the given sizes and otherwise the default
+	 * {@link TransportConfig}
+	 * 
+	 * @param graphMaxConnections Connections to graph.facebook.com
+	 * @param apiMaxConnections Connections to api.facebook.com
+	 */
+	public APICaller(int graphMaxConnections, int apiMaxConnections){
+		this(new TransportConfig());
+		config.setGraphMaxConnections(graphMaxConnections);
+		config.setFqlMaxConnections(apiMaxConnections);
+	}
+	
+	/**
+	 * Creates a caller with its own connection pools. Requests to graph.facebook.com and api.facebook.com (fql) are
+	 * made from separate pools so that one can't starve the other, requests to any other host share a third pool of
+	 * the graph pool's size.
+	 * 
+	 * @param config Copied, later changes to it have no effect
+	 */
+	public APICaller(TransportConfig config){
+		this.config = new TransportConfig(config);
+	}
+	
+	private HttpClient getHttpClient(String url) {
+		Transport current = transport.get();
+		while(current == null){
+			Transport created = new Transport(config);
+			if(transport.compareAndSet(null, created)){
+				created.start();
+				current = created;
+			} else {
+				// another thread got there first, nothing was opened yet so this one can just be dropped
+				current = transport.get();
 			}
+		}
+		return current.getHttpClient(url);
+	}
+	
+	/**
+	 * Closes the connections of this caller, requests still in flight may fail. New connection pools are created if the
+	 * caller is used again.
+	 */
+	public void shutdown() {
+		Transport current = transport.getAndSet(null);
+		if(current != null){
+			current.shutdown();
+		}
+	}
+	
+	/**
+	 * Response body bytes read by this caller, before and after decompression
+	 */
+	public TransferStats getTransferStats() {
+		return transferStats;
+	}
+	
+	/**
+	 * Sets the per request settings
+	 */
+	private <M extends HttpMethodBase> M prepare(M method) {
+		if(!config.isKeepAlive()){
+			method.setRequestHeader("Connection", "close");
+		}
+		if(config.isCompression()){
+			method.setRequestHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING);
+		}
+		return method;
+	}
+	
+	/**
+	 * The response body, decompressed as it is read if it came gzip or deflate encoded
+	 */
+	private InputStream getResponseBodyAsStream(HttpMethodBase method) throws IOException {
+		Header contentEncoding = method.getResponseHeader("Content-Encoding");
+		return ContentEncoding.decode(method.getResponseBodyAsStream(), contentEncoding == null ? null : contentEncoding.getValue(), transferStats);
+	}
+	
+	private String getResponseBodyAsString(HttpMethodBase method) throws IOException {
+		return new String(ContentEncoding.readFully(getResponseBodyAsStream(method)), method.getResponseCharSet());
+	}
+	
+	/**
+	 * One http client and connection pool per host
+	 */
+	private static class Transport {
+		
+		private final HttpClient graphClient;
+		private final HttpClient apiClient;
+		private final HttpClient otherClient;
+		
+		private final IdleConnectionTimeoutThread idleConnectionTimeoutThread;
+		
+		Transport(TransportConfig config) {
+			graphClient = createHttpClient(config, config.getGraphMaxConnections());
+			apiClient = createHttpClient(config, config.getFqlMaxConnections());
+			otherClient = createHttpClient(config, config.getGraphMaxConnections());
 			
-			if(username != null || password != null){
-				credentials = new UsernamePasswordCredentials(username, password);
-				httpClient.getState().setCredentials(AuthScope.ANY, credentials);
+			if(config.getIdleConnectionTimeout() > 0){
+				idleConnectionTimeoutThread = new IdleConnectionTimeoutThread();
+				idleConnectionTimeoutThread.setName("face4j-idle-connections");
+				idleConnectionTimeoutThread.setConnectionTimeout(config.getIdleConnectionTimeout());
+				idleConnectionTimeoutThread.setTimeoutInterval(Math.min(config.getIdleConnectionTimeout(), 5000));
+				idleConnectionTimeoutThread.addConnectionManager(graphClient.getHttpConnectionManager());
+				idleConnectionTimeoutThread.addConnectionManager(apiClient.getHttpConnectionManager());
+				idleConnectionTimeoutThread.addConnectionManager(otherClient.getHttpConnectionManager());
+			} else {
+				idleConnectionTimeoutThread = null;
 			}
-			
-			if(username != null || password != null || host != null || port > -1){
-				try {
-					httpClient.getState().setCredentials( new AuthScope(host, port), credentials);
-	      } finally {
-	      }
+		}
+		
+		void start() {
+			if(idleConnectionTimeoutThread != null){
+				idleConnectionTimeoutThread.start();
 			}
-			
+		}
+		
+		HttpClient getHttpClient(String url) {
+			String host = getHost(url);
+			if(GRAPH_HOST.equals(host)){
+				return graphClient;
+			} else if(API_HOST.equals(host)){
+				return apiClient;
+			}
+			return otherClient;
+		}
+		
+		void shutdown() {
+			if(idleConnectionTimeoutThread != null){
+				idleConnectionTimeoutThread.shutdown();
+			}
+			((MultiThreadedHttpConnectionManager) graphClient.getHttpConnectionManager()).shutdown();
+			((MultiThreadedHttpConnectionManager) apiClient.getHttpConnectionManager()).shutdown();
+			((MultiThreadedHttpConnectionManager) otherClient.getHttpConnectionManager()).shutdown();
+		}
+		
+	}
+	
+	static String getHost(String url) {
+		int start = url.indexOf("://");
+		start = (start < 0) ? 0 : start + 3;
+		int end = start;
+		while(end < url.length() && "/:?".indexOf(url.charAt(end)) < 0){
+			end++;
+		}
+		return url.substring(start, end);
+	}
+	
+	private static HttpClient createHttpClient(TransportConfig config, int maxConnections) {
+		MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
+		HttpConnectionManagerParams params = connectionManager.getParams();
+		params.setMaxConnectionsPerHost(HostConfiguration.ANY_HOST_CONFIGURATION, maxConnections);
+		params.setMaxTotalConnections(maxConnections);
+		params.setConnectionTimeout(config.getConnectTimeout());
+		params.setSoTimeout(config.getReadTimeout());
+		params.setTcpNoDelay(config.isTcpNoDelay());
+		if(config.getSendBufferSize() > 0){
+			params.setSendBufferSize(config.getSendBufferSize());
+		}
+		if(config.getReceiveBufferSize() > 0){
+			params.setReceiveBufferSize(config.getReceiveBufferSize());
+		}
+		
+		HttpClient httpClient = new HttpClient(connectionManager);
+		httpClient.getParams().setConnectionManagerTimeout(config.getPoolAcquireTimeout());
+		
+		String username = config.getProxyUsername();
+		String password = config.getProxyPassword();
+		String host = config.getProxyHost();
+		int port = config.getProxyPort();
+		Credentials credentials = null;
+		
+		if(host != null){
+			httpClient.getHostConfiguration().setProxy(host, port);
+		}
+		
+		if(username != null || password != null){
+			credentials = new UsernamePasswordCredentials(username, password);
+			httpClient.getState().setCredentials(AuthScope.ANY, credentials);
+			httpClient.getState().setProxyCredentials(AuthScope.ANY, credentials);
 		}
 		return httpClient;
 	}
@@ -106,13 +266,16 @@ public class APICaller implements APICallerInterface {
 	 
 	}*/
 	
+	/**
+	 * The caller shared by Facebook instances that weren't created through a {@link com.face4j.facebook.factory.FacebookFactory}
+	 */
 	public static APICaller getInstance(){
 		return caller;
 	}
 	
 	
 	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException{
-		HttpClient client = APICaller.getHttpClient();
+		HttpClient client = getHttpClient(url);
 		String response = null;
 		
 		//This part is when the nameValuePairs is null indicating the params are most probably in the url
@@ -128,7 +291,7 @@ public class APICaller implements APICallerInterface {
 		
 		GetMethod getMethod = null;
 		try{
-		 getMethod = new GetMethod(url);
+		 getMethod = prepare(new GetMethod(url));
 		 
 		 if(nameValuePairs!=null){
 			 getMethod.setQueryString(nameValuePairs);
@@ -137,10 +300,10 @@ public class APICaller implements APICallerInterface {
 		 int statusCode = client.executeMethod(getMethod);
 			if (statusCode != HttpStatus.SC_OK) {
 				//FacebookError error = new FacebookError(statusCode, "I guess you are not permitted to access this url. HTTP status code:"+statusCode, null);
-				response = getMethod.getResponseBodyAsString();
+				response = getResponseBodyAsString(getMethod);
 				throw new FacebookException(JSONToObjectTransformer.getError(response, statusCode));
 	    }
-			response = getMethod.getResponseBodyAsString();
+			response = getResponseBodyAsString(getMethod);
 		} catch (HttpException e) {
 			throw new FacebookException("Http Exception while calling facebook!",e);
 		} catch (IOException e) {
@@ -156,14 +319,57 @@ public class APICaller implements APICallerInterface {
  }
 
 
+	/**
+	 * Same as {@link #getData(String, NameValuePair[])} but the response body is streamed into the handler instead of
+	 * being read into a String first
+	 */
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException{
+		HttpClient client = getHttpClient(url);
+		
+		//This part is when the nameValuePairs is null indicating the params are most probably in the url
+		String urlSplit[] = null;
+		if(nameValuePairs==null){
+			urlSplit = url.split("\\?");
+			url = urlSplit[0];
+			
+			if(urlSplit.length > 1){
+				nameValuePairs = getNameValuePairs(urlSplit[1]);
+			}
+		}
+		
+		GetMethod getMethod = null;
+		try{
+		 getMethod = prepare(new GetMethod(url));
+		 
+		 if(nameValuePairs!=null){
+			 getMethod.setQueryString(nameValuePairs);
+		 }
+		 
+		 int statusCode = client.executeMethod(getMethod);
+			if (statusCode != HttpStatus.SC_OK) {
+				throw new FacebookException(JSONToObjectTransformer.getError(getResponseBodyAsString(getMethod), statusCode));
+	    }
+			
+			Reader reader = new InputStreamReader(getResponseBodyAsStream(getMethod), getMethod.getResponseCharSet());
+			return handler.handle(reader);
+		} catch (HttpException e) {
+			throw new FacebookException("Http Exception while calling facebook!",e);
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while calling facebook!",e);
+		}	finally {
+	  		getMethod.releaseConnection();
+	  }
+	}
+
+
     public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
 
-        HttpClient client = APICaller.getHttpClient();
+        HttpClient client = getHttpClient(url);
         String response = null;
 
         PostMethod postMethod = null;
         try {
-            postMethod = new PostMethod(url);
+            postMethod = prepare(new PostMethod(url));
 
             if (nameValuePairs != null) {
                 postMethod.setQueryString(nameValuePairs);
@@ -172,10 +378,10 @@ public class APICaller implements APICallerInterface {
             int statusCode = client.executeMethod(postMethod);
             if (statusCode != HttpStatus.SC_OK) {
             	//FacebookError error = new FacebookError(statusCode, "I guess you are not permitted to access this url. HTTP status code:"+statusCode, null);
-            	response = postMethod.getResponseBodyAsString();
+            	response = getResponseBodyAsString(postMethod);
       				throw new FacebookException(JSONToObjectTransformer.getError(response, statusCode));
             }
-            response = postMethod.getResponseBodyAsString();
+            response = getResponseBodyAsString(postMethod);
         } catch (HttpException e) {
             throw new FacebookException("Http Exception while calling facebook!", e);
         } catch (IOException e) {
@@ -189,12 +395,12 @@ public class APICaller implements APICallerInterface {
    
     public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
 
-      HttpClient client = APICaller.getHttpClient();
+      HttpClient client = getHttpClient(url);
       String response = null;
 
       DeleteMethod deleteMethod = null;
       try {
-          deleteMethod = new DeleteMethod(url);
+          deleteMethod = prepare(new DeleteMethod(url));
 
           if (nameValuePairs != null) {
               deleteMethod.setQueryString(nameValuePairs);
@@ -202,10 +408,10 @@ public class APICaller implements APICallerInterface {
 
           int statusCode = client.executeMethod(deleteMethod);
           if (statusCode != HttpStatus.SC_OK) {
-          	response = deleteMethod.getResponseBodyAsString();
+          	response = getResponseBodyAsString(deleteMethod);
     				throw new FacebookException(JSONToObjectTransformer.getError(response, statusCode));
           }
-          response = deleteMethod.getResponseBodyAsString();
+          response = getResponseBodyAsString(deleteMethod);
       } catch (HttpException e) {
           throw new FacebookException("Http Exception while calling facebook!", e);
       } catch (IOException e) {
@@ -1,5 +1,6 @@
 package com.face4j.facebook.http;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -7,16 +8,146 @@ import com.face4j.facebook.enums.HttpClientType;
 
 public class APICallerFactory {
 
+	/**
+	 * The {@link HttpClientType#JDK_HTTP_CLIENT} callers are built on java.net.http and compiled from src-java11, so
+	 * they are looked up by name and only when asked for
+	 */
+	private static final String JDK_CALLER = "com.face4j.facebook.http.JDKAPICaller";
+	private static final String JDK_ASYNC_CALLER = "com.face4j.facebook.http.JDKAsyncAPICaller";
+
+	private static APICallerInterface jdkCaller;
+
+	private static AsyncAPICallerInterface jdkAsyncCaller;
+
 	private static Map<HttpClientType, APICallerInterface> callers;
 	
+	private static Map<HttpClientType, AsyncAPICallerInterface> asyncCallers;
+	
 	static {
+		asyncCallers = new HashMap<HttpClientType, AsyncAPICallerInterface>();
+		asyncCallers.put(HttpClientType.ASYNC_NIO, NIOAPICaller.getInstance());
+		asyncCallers.put(HttpClientType.URL_FETCH_SERVICE, new URLFetchAsyncAPICaller());
+		
 		callers = new HashMap<HttpClientType, APICallerInterface>();
 		callers.put(HttpClientType.APACHE_HTTP_CLIENT, APICaller.getInstance());
 		callers.put(HttpClientType.URL_FETCH_SERVICE, new URLFetchAPICaller());
+		callers.put(HttpClientType.ASYNC_NIO, new BlockingAPICaller(NIOAPICaller.getInstance()));
 	}
 	
 	public static APICallerInterface getAPICallerInstance(HttpClientType clientType){
+		if(clientType == HttpClientType.JDK_HTTP_CLIENT){
+			return getJDKCaller();
+		}
 		return callers.get(clientType);
 	}
 	
+	/**
+	 * Returns a caller with its own connection pools for client types that pool connections, the shared instance for
+	 * the others. Used by {@link com.face4j.facebook.factory.FacebookFactory} so that apps don't compete for
+	 * connections.
+	 * @param clientType
+	 * @return
+	 */
+	public static APICallerInterface newAPICallerInstance(HttpClientType clientType){
+		if(clientType == HttpClientType.APACHE_HTTP_CLIENT){
+			return new APICaller();
+		}
+		return getAPICallerInstance(clientType);
+	}
+	
+	/**
+	 * Returns a new caller of the given type set up with the config
+	 * @param clientType
+	 * @param config
+	 * @return
+	 */
+	public static APICallerInterface newAPICallerInstance(HttpClientType clientType, TransportConfig config){
+		switch (clientType) {
+		case APACHE_HTTP_CLIENT:
+			return new APICaller(config);
+		case URL_FETCH_SERVICE:
+			return new URLFetchAPICaller(config);
+		case ASYNC_NIO:
+			return new BlockingAPICaller(new NIOAPICaller(config), config);
+		case JDK_HTTP_CLIENT:
+			return newJDKCaller(JDK_CALLER, APICallerInterface.class, config);
+		default:
+			return callers.get(clientType);
+		}
+	}
+	
+	/**
+	 * Closes the connections and stops the threads of a caller returned by
+	 * {@link #newAPICallerInstance(HttpClientType, TransportConfig)} or {@link #newAPICallerInstance(HttpClientType)}.
+	 * The shared instances are left alone.
+	 * @param caller
+	 */
+	public static void shutdown(APICallerInterface caller){
+		if(caller == null || callers.containsValue(caller)){
+			return;
+		}
+		if(caller instanceof APICaller){
+			((APICaller) caller).shutdown();
+		} else if(caller instanceof BlockingAPICaller){
+			AsyncAPICallerInterface asyncCaller = ((BlockingAPICaller) caller).getAsyncCaller();
+			if(asyncCaller instanceof NIOAPICaller && asyncCaller != NIOAPICaller.getInstance()){
+				((NIOAPICaller) asyncCaller).shutdown();
+			}
+		}
+	}
+	
+	/**
+	 * Returns the future based caller for the given client type, null if the client type has no async support
+	 * @param clientType
+	 * @return
+	 */
+	public static AsyncAPICallerInterface getAsyncAPICallerInstance(HttpClientType clientType){
+		if(clientType == HttpClientType.JDK_HTTP_CLIENT){
+			return getJDKAsyncCaller();
+		}
+		return asyncCallers.get(clientType);
+	}
+	
+	private static synchronized APICallerInterface getJDKCaller(){
+		if(jdkCaller == null){
+			jdkCaller = newJDKCaller(JDK_CALLER, APICallerInterface.class, new TransportConfig());
+		}
+		return jdkCaller;
+	}
+	
+	private static synchronized AsyncAPICallerInterface getJDKAsyncCaller(){
+		if(jdkAsyncCaller == null){
+			jdkAsyncCaller = newJDKCaller(JDK_ASYNC_CALLER, AsyncAPICallerInterface.class, new TransportConfig());
+		}
+		return jdkAsyncCaller;
+	}
+	
+	/**
+	 * @throws UnsupportedOperationException If the class isn't there or can't be loaded, i.e. before Java 11 or when
+	 *           face4j was built without src-java11
+	 */
+	private static <T> T newJDKCaller(String className, Class<T> type, TransportConfig config){
+		try {
+			return type.cast(Class.forName(className).getConstructor(TransportConfig.class).newInstance(config));
+		} catch (ClassNotFoundException e) {
+			throw jdkClientMissing(e);
+		} catch (LinkageError e) {
+			throw jdkClientMissing(e);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Could not create " + className, e.getCause());
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not create " + className, e);
+		}
+	}
+	
+	private static UnsupportedOperationException jdkClientMissing(Throwable cause){
+		UnsupportedOperationException e = new UnsupportedOperationException(
+				"JDK_HTTP_CLIENT needs Java 11 or later and face4j built with src-java11");
+		e.initCause(cause);
+		return e;
+	}
+	
 }
@@ -0,0 +1,93 @@
+package com.face4j.facebook.http;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Future returned by the {@link AsyncAPICallerInterface} implementations. It is completed exactly once, either with the
+ * raw response or with the FacebookException that the call ended in.
+ */
+public class APIResponseFuture implements Future<String> {
+
+	private final CountDownLatch latch = new CountDownLatch(1);
+
+	private volatile String response;
+	private volatile FacebookException exception;
+	private volatile boolean cancelled;
+
+	/**
+	 * @return true if this call completed the future, false if it was already done
+	 */
+	public boolean complete(String response) {
+		synchronized (latch) {
+			if (isDone()) {
+				return false;
+			}
+			this.response = response;
+			latch.countDown();
+			return true;
+		}
+	}
+
+	/**
+	 * @return true if this call completed the future, false if it was already done
+	 */
+	public boolean fail(FacebookException exception) {
+		synchronized (latch) {
+			if (isDone()) {
+				return false;
+			}
+			this.exception = exception;
+			latch.countDown();
+			return true;
+		}
+	}
+
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		synchronized (latch) {
+			if (isDone()) {
+				return false;
+			}
+			cancelled = true;
+			latch.countDown();
+			return true;
+		}
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	public boolean isDone() {
+		return latch.getCount() == 0;
+	}
+
+	public String get() throws InterruptedException, ExecutionException {
+		latch.await();
+		return getResult();
+	}
+
+	public String get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		if (!latch.await(timeout, unit)) {
+			throw new TimeoutException();
+		}
+		return getResult();
+	}
+
+	private String getResult() throws ExecutionException {
+		if (cancelled) {
+			throw new CancellationException();
+		}
+		if (exception != null) {
+			throw new ExecutionException(exception);
+		}
+		return response;
+	}
+
+}
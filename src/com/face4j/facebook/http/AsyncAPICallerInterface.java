@@ -0,0 +1,19 @@
+package com.face4j.facebook.http;
+
+import java.util.concurrent.Future;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+/**
+ * Non blocking counterpart of {@link APICallerInterface}. Every call returns immediately with a Future holding the raw
+ * response. If facebook returns an error, {@link Future#get()} throws an ExecutionException whose cause is the
+ * FacebookException.
+ */
+public interface AsyncAPICallerInterface {
+
+	public Future<String> getData(String url, NameValuePair[] nameValuePairs);
+
+	public Future<String> postData(String url, NameValuePair[] nameValuePairs);
+
+	public Future<String> deleteData(String url, NameValuePair[] nameValuePairs);
+}
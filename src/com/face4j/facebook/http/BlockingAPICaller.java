@@ -0,0 +1,79 @@
+package com.face4j.facebook.http;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Exposes an {@link AsyncAPICallerInterface} as a plain {@link APICallerInterface} so that the async transports can be
+ * used by {@link com.face4j.facebook.Facebook} and {@link com.face4j.facebook.factory.FacebookFactory} unchanged. The
+ * calling thread just waits on the returned future.
+ */
+public class BlockingAPICaller implements APICallerInterface {
+
+	private final AsyncAPICallerInterface asyncCaller;
+	private final long timeoutMillis;
+
+	public BlockingAPICaller(AsyncAPICallerInterface asyncCaller) {
+		this(asyncCaller, new TransportConfig());
+	}
+
+	/**
+	 * @param asyncCaller
+	 * @param config The calling thread waits at most the connect plus the read timeout for a response
+	 */
+	public BlockingAPICaller(AsyncAPICallerInterface asyncCaller, TransportConfig config) {
+		this.asyncCaller = asyncCaller;
+		this.timeoutMillis = (long) config.getConnectTimeout() + config.getReadTimeout();
+	}
+
+	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return await(asyncCaller.getData(url, nameValuePairs), timeoutMillis);
+	}
+
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return await(asyncCaller.postData(url, nameValuePairs), timeoutMillis);
+	}
+
+	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return await(asyncCaller.deleteData(url, nameValuePairs), timeoutMillis);
+	}
+
+	public AsyncAPICallerInterface getAsyncCaller() {
+		return asyncCaller;
+	}
+
+	/**
+	 * Waits for the future and hands back the FacebookException it failed with, if any
+	 */
+	public static String await(Future<String> future) throws FacebookException {
+		return await(future, 0);
+	}
+
+	/**
+	 * Same as {@link #await(Future)} but gives up after timeoutMillis, 0 waits for as long as it takes
+	 */
+	public static String await(Future<String> future, long timeoutMillis) throws FacebookException {
+		try {
+			return (timeoutMillis > 0) ? future.get(timeoutMillis, TimeUnit.MILLISECONDS) : future.get();
+		} catch (TimeoutException e) {
+			future.cancel(true);
+			throw new FacebookException("Timed out after " + timeoutMillis + "ms while waiting for facebook!", e);
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new FacebookException("Interrupted while waiting for facebook!", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof FacebookException) {
+				throw (FacebookException) e.getCause();
+			}
+			throw new FacebookException("Exception while calling facebook!", e);
+		}
+	}
+
+}
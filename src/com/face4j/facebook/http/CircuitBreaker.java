@@ -0,0 +1,433 @@
+package com.face4j.facebook.http;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.face4j.facebook.exception.CircuitOpenException;
+
+/**
+ * A circuit breaker per endpoint (host). While closed, the outcome of the last {@link #getWindowSize()} calls is kept;
+ * once at least {@link #getMinimumCalls()} of them are known and the share of failed calls or of slow calls reaches its
+ * threshold, the breaker opens. An open breaker fails every call at once with a {@link CircuitOpenException} instead of
+ * letting it wait for a timeout. After {@link #getOpenMillis()} it turns half open and lets
+ * {@link #getHalfOpenCalls()} probe calls through: if they all succeed it closes again, if one fails it opens again.
+ * <br>
+ *
+ * A failure is a call that got no response (timeouts, connection errors) or a 5xx response; errors facebook answers
+ * with for the request itself, like an expired access token or a throttling error, say nothing about the health of the
+ * endpoint and count as successes. The time a call spends waiting in a {@link RateLimiter} or
+ * {@link ConcurrencyLimiter} is not part of its duration, only the time facebook takes is judged. <br>
+ *
+ * Only the outcome of calls let through in the current state counts: a call let through while closed that finishes
+ * after the breaker opened, or even turned half open, is ignored rather than taken for a probe. <br>
+ *
+ * Used through {@link CircuitBreakerAPICaller}, see
+ * {@link com.face4j.facebook.factory.FacebookFactory#setCircuitBreaker(CircuitBreaker)}. Add a {@link Listener} to be
+ * told about state changes. This class is thread safe.
+ */
+public class CircuitBreaker {
+
+	public enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	/**
+	 * Told about the state changes of the endpoints. Called on the thread whose call caused the change, so keep it short.
+	 */
+	public interface Listener {
+
+		public void stateChanged(String endpoint, State from, State to);
+
+	}
+
+	/**
+	 * Outcome of a call
+	 */
+	enum Outcome {
+		SUCCESS, SLOW, FAILURE
+	}
+
+	private static final Logger logger = Logger.getLogger(CircuitBreaker.class.getName());
+
+	private int windowSize = 50;
+	private int minimumCalls = 20;
+	private int failureRateThreshold = 50;
+	private long slowCallMillis = 10000;
+	private int slowCallRateThreshold = 80;
+	private long openMillis = 30000;
+	private int halfOpenCalls = 3;
+
+	private final ConcurrentMap<String, Circuit> circuits = new ConcurrentHashMap<String, Circuit>();
+	private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Number of most recent calls the failure and slow call rates are taken over. Default 50.
+	 *
+	 * @param windowSize
+	 */
+	public void setWindowSize(int windowSize) {
+		this.windowSize = checkPositive(windowSize);
+	}
+
+	public int getMinimumCalls() {
+		return minimumCalls;
+	}
+
+	/**
+	 * Calls needed in the window before the breaker may open. Default 20.
+	 *
+	 * @param minimumCalls
+	 */
+	public void setMinimumCalls(int minimumCalls) {
+		this.minimumCalls = checkPositive(minimumCalls);
+	}
+
+	public int getFailureRateThreshold() {
+		return failureRateThreshold;
+	}
+
+	/**
+	 * Percentage of failed calls at which the breaker opens. Default 50.
+	 *
+	 * @param failureRateThreshold
+	 */
+	public void setFailureRateThreshold(int failureRateThreshold) {
+		this.failureRateThreshold = checkPercentage(failureRateThreshold);
+	}
+
+	public long getSlowCallMillis() {
+		return slowCallMillis;
+	}
+
+	/**
+	 * Calls that take longer than this are slow. Default 10 seconds.
+	 *
+	 * @param slowCallMillis
+	 */
+	public void setSlowCallMillis(long slowCallMillis) {
+		this.slowCallMillis = checkPositive(slowCallMillis);
+	}
+
+	public int getSlowCallRateThreshold() {
+		return slowCallRateThreshold;
+	}
+
+	/**
+	 * Percentage of slow calls at which the breaker opens. Default 80.
+	 *
+	 * @param slowCallRateThreshold
+	 */
+	public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+		this.slowCallRateThreshold = checkPercentage(slowCallRateThreshold);
+	}
+
+	public long getOpenMillis() {
+		return openMillis;
+	}
+
+	/**
+	 * How long the breaker stays open before it lets probe calls through. Default 30 seconds.
+	 *
+	 * @param openMillis
+	 */
+	public void setOpenMillis(long openMillis) {
+		this.openMillis = checkPositive(openMillis);
+	}
+
+	public int getHalfOpenCalls() {
+		return halfOpenCalls;
+	}
+
+	/**
+	 * Probe calls let through while half open, all of them must succeed to close the breaker. Default 3.
+	 *
+	 * @param halfOpenCalls
+	 */
+	public void setHalfOpenCalls(int halfOpenCalls) {
+		this.halfOpenCalls = checkPositive(halfOpenCalls);
+	}
+
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return The state of the endpoint, closed for endpoints that haven't been called yet
+	 */
+	public State getState(String endpoint) {
+		Circuit circuit = circuits.get(endpoint);
+		return (circuit == null) ? State.CLOSED : circuit.getState();
+	}
+
+	/**
+	 * @return The state of every endpoint called so far
+	 */
+	public Map<String, State> getStates() {
+		Map<String, State> snapshot = new TreeMap<String, State>();
+		for (Map.Entry<String, Circuit> entry : circuits.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().getState());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return Number of calls failed fast because their breaker was open
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	/**
+	 * Closes the breaker of the endpoint and forgets its calls
+	 */
+	public void reset(String endpoint) {
+		Circuit circuit = circuits.get(endpoint);
+		if (circuit != null) {
+			circuit.reset();
+		}
+	}
+
+	/**
+	 * Lets the call through or throws
+	 *
+	 * @return To pass to {@link #record(Permit, boolean)}
+	 */
+	Permit acquire(String endpoint) throws CircuitOpenException {
+		Circuit circuit = circuits.get(endpoint);
+		if (circuit == null) {
+			Circuit created = new Circuit(endpoint);
+			circuit = circuits.putIfAbsent(endpoint, created);
+			if (circuit == null) {
+				circuit = created;
+			}
+		}
+		return new Permit(circuit, circuit.acquire(), System.nanoTime(), LimiterWaits.get());
+	}
+
+	/**
+	 * Records the outcome of a call that was let through
+	 *
+	 * @param failed True if the call got no response or a 5xx response
+	 */
+	void record(Permit permit, boolean failed) {
+		long elapsed = System.nanoTime() - permit.start - (LimiterWaits.get() - permit.waited);
+		long millis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+		Outcome outcome = failed ? Outcome.FAILURE : (millis > slowCallMillis ? Outcome.SLOW : Outcome.SUCCESS);
+		permit.circuit.record(permit.generation, outcome);
+	}
+
+	private void fireStateChanged(String endpoint, State from, State to) {
+		logger.log(to == State.OPEN ? Level.WARNING : Level.INFO, "Circuit to " + endpoint + " " + from + " -> " + to);
+		for (Listener listener : listeners) {
+			try {
+				listener.stateChanged(endpoint, from, to);
+			} catch (RuntimeException e) {
+				logger.log(Level.WARNING, "Circuit breaker listener failed", e);
+			}
+		}
+	}
+
+	private static int checkPositive(int value) {
+		if (value < 1) {
+			throw new IllegalArgumentException("Must be at least 1: " + value);
+		}
+		return value;
+	}
+
+	private static long checkPositive(long value) {
+		if (value < 1) {
+			throw new IllegalArgumentException("Must be at least 1: " + value);
+		}
+		return value;
+	}
+
+	private static int checkPercentage(int value) {
+		if (value < 1 || value > 100) {
+			throw new IllegalArgumentException("Must be between 1 and 100: " + value);
+		}
+		return value;
+	}
+
+	/**
+	 * A call let through by {@link #acquire(String)}
+	 */
+	static final class Permit {
+
+		private final Circuit circuit;
+		private final long generation;
+		private final long start;
+		private final long waited;
+
+		Permit(Circuit circuit, long generation, long start, long waited) {
+			this.circuit = circuit;
+			this.generation = generation;
+			this.start = start;
+			this.waited = waited;
+		}
+	}
+
+	/**
+	 * Breaker of one endpoint
+	 */
+	private class Circuit {
+
+		private final String endpoint;
+
+		private State state = State.CLOSED;
+		/**
+		 * Goes up with every state change, a call's outcome only counts in the generation it was let through in
+		 */
+		private long generation;
+		private Outcome[] window = new Outcome[windowSize];
+		private int next;
+		private int calls;
+		private int failures;
+		private int slowCalls;
+
+		private long openedAt;
+		private int probesStarted;
+		private int probesSucceeded;
+
+		Circuit(String endpoint) {
+			this.endpoint = endpoint;
+		}
+
+		/**
+		 * @return The generation the call is let through in
+		 */
+		long acquire() throws CircuitOpenException {
+			State from;
+			long admitted;
+			synchronized (this) {
+				from = state;
+				if (state == State.CLOSED) {
+					return generation;
+				}
+				if (state == State.OPEN) {
+					long remaining = openMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedAt);
+					if (remaining > 0) {
+						rejected.incrementAndGet();
+						throw new CircuitOpenException(endpoint, remaining);
+					}
+					state = State.HALF_OPEN;
+					generation++;
+					probesStarted = 0;
+					probesSucceeded = 0;
+				}
+				if (probesStarted >= halfOpenCalls) {
+					rejected.incrementAndGet();
+					throw new CircuitOpenException(endpoint, 0);
+				}
+				probesStarted++;
+				admitted = generation;
+			}
+			if (from != State.HALF_OPEN) {
+				fireStateChanged(endpoint, from, State.HALF_OPEN);
+			}
+			return admitted;
+		}
+
+		void record(long admitted, Outcome outcome) {
+			State from;
+			State to;
+			synchronized (this) {
+				if (admitted != generation) {
+					// let through before the last state change, it's no probe and no part of the current window
+					return;
+				}
+				from = state;
+				if (state == State.HALF_OPEN) {
+					if (outcome == Outcome.SUCCESS) {
+						if (++probesSucceeded >= halfOpenCalls) {
+							clear();
+							state = State.CLOSED;
+							generation++;
+						}
+					} else {
+						open();
+					}
+				} else if (state == State.CLOSED) {
+					add(outcome);
+					if (calls >= Math.min(minimumCalls, window.length)
+							&& (failures * 100 >= failureRateThreshold * calls || slowCalls * 100 >= slowCallRateThreshold * calls)) {
+						open();
+					}
+				}
+				to = state;
+			}
+			if (from != to) {
+				fireStateChanged(endpoint, from, to);
+			}
+		}
+
+		void reset() {
+			State from;
+			synchronized (this) {
+				from = state;
+				clear();
+				state = State.CLOSED;
+				generation++;
+			}
+			if (from != State.CLOSED) {
+				fireStateChanged(endpoint, from, State.CLOSED);
+			}
+		}
+
+		synchronized State getState() {
+			return state;
+		}
+
+		private void add(Outcome outcome) {
+			Outcome evicted = window[next];
+			if (evicted == Outcome.FAILURE) {
+				failures--;
+			} else if (evicted == Outcome.SLOW) {
+				slowCalls--;
+			}
+			if (evicted == null) {
+				calls++;
+			}
+
+			window[next] = outcome;
+			next = (next + 1) % window.length;
+			if (outcome == Outcome.FAILURE) {
+				failures++;
+			} else if (outcome == Outcome.SLOW) {
+				slowCalls++;
+			}
+		}
+
+		private void open() {
+			clear();
+			state = State.OPEN;
+			generation++;
+			openedAt = System.nanoTime();
+		}
+
+		private void clear() {
+			window = new Outcome[windowSize];
+			next = 0;
+			calls = 0;
+			failures = 0;
+			slowCalls = 0;
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.face4j.facebook.http;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Wraps a caller in a {@link CircuitBreaker} per host. While the breaker of a host is open its calls fail at once with
+ * a {@link com.face4j.facebook.exception.CircuitOpenException} instead of waiting for a timeout.
+ */
+public class CircuitBreakerAPICaller implements StreamingAPICallerInterface {
+
+	private final APICallerInterface caller;
+	private final CircuitBreaker circuitBreaker;
+
+	public CircuitBreakerAPICaller(APICallerInterface caller, CircuitBreaker circuitBreaker) {
+		if (caller == null || circuitBreaker == null) {
+			throw new IllegalArgumentException("caller and circuitBreaker must not be null");
+		}
+		this.caller = caller;
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	public APICallerInterface getCaller() {
+		return caller;
+	}
+
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String host = APICaller.getHost(url);
+		CircuitBreaker.Permit permit = circuitBreaker.acquire(host);
+		boolean failed = false;
+		try {
+			return caller.getData(url, nameValuePairs);
+		} catch (FacebookException e) {
+			failed = isFailure(e);
+			throw e;
+		} finally {
+			circuitBreaker.record(permit, failed);
+		}
+	}
+
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException {
+		if (!(caller instanceof StreamingAPICallerInterface)) {
+			return handler.handle(new StringReader(getData(url, nameValuePairs)));
+		}
+
+		String host = APICaller.getHost(url);
+		CircuitBreaker.Permit permit = circuitBreaker.acquire(host);
+		boolean failed = false;
+		try {
+			return ((StreamingAPICallerInterface) caller).getData(url, nameValuePairs, handler);
+		} catch (FacebookException e) {
+			failed = isFailure(e);
+			throw e;
+		} finally {
+			circuitBreaker.record(permit, failed);
+		}
+	}
+
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String host = APICaller.getHost(url);
+		CircuitBreaker.Permit permit = circuitBreaker.acquire(host);
+		boolean failed = false;
+		try {
+			return caller.postData(url, nameValuePairs);
+		} catch (FacebookException e) {
+			failed = isFailure(e);
+			throw e;
+		} finally {
+			circuitBreaker.record(permit, failed);
+		}
+	}
+
+	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String host = APICaller.getHost(url);
+		CircuitBreaker.Permit permit = circuitBreaker.acquire(host);
+		boolean failed = false;
+		try {
+			return caller.deleteData(url, nameValuePairs);
+		} catch (FacebookException e) {
+			failed = isFailure(e);
+			throw e;
+		} finally {
+			circuitBreaker.record(permit, failed);
+		}
+	}
+
+	/**
+	 * No response at all, or a server error. Errors about the request itself (bad token, throttling) don't count.
+	 */
+	private static boolean isFailure(FacebookException e) {
+		if (e.getError() == null) {
+			return e.getCause() instanceof IOException;
+		}
+		return e.getError().getHttpStatusCode() >= 500;
+	}
+
+}
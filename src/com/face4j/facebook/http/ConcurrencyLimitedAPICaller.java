@@ -0,0 +1,131 @@
+package com.face4j.facebook.http;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Wraps a caller so that the requests to each host stay within the adaptive limit of a {@link ConcurrencyLimiter}.
+ * Every call, whatever its method, takes a slot for its host and its round trip time adjusts the limit. Only
+ * failures without a response (an IOException) count as dropped; for streamed GETs the round trip ends when the
+ * response arrives, before the handler parses it.
+ */
+public class ConcurrencyLimitedAPICaller implements StreamingAPICallerInterface {
+
+	private final APICallerInterface caller;
+	private final ConcurrencyLimiter limiter;
+
+	public ConcurrencyLimitedAPICaller(APICallerInterface caller, ConcurrencyLimiter limiter) {
+		if (caller == null || limiter == null) {
+			throw new IllegalArgumentException("caller and limiter must not be null");
+		}
+		this.caller = caller;
+		this.limiter = limiter;
+	}
+
+	public APICallerInterface getCaller() {
+		return caller;
+	}
+
+	public ConcurrencyLimiter getLimiter() {
+		return limiter;
+	}
+
+	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String host = APICaller.getHost(url);
+		long start = limiter.acquire(host);
+		boolean dropped = false;
+		try {
+			return caller.getData(url, nameValuePairs);
+		} catch (FacebookException e) {
+			dropped = isDropped(e);
+			throw e;
+		} finally {
+			limiter.release(host, start, dropped);
+		}
+	}
+
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException {
+		if (!(caller instanceof StreamingAPICallerInterface)) {
+			return handler.handle(new StringReader(getData(url, nameValuePairs)));
+		}
+
+		String host = APICaller.getHost(url);
+		long start = limiter.acquire(host);
+		TimedResponseHandler<T> timedHandler = new TimedResponseHandler<T>(handler);
+		boolean dropped = false;
+		try {
+			return ((StreamingAPICallerInterface) caller).getData(url, nameValuePairs, timedHandler);
+		} catch (FacebookException e) {
+			dropped = isDropped(e);
+			throw e;
+		} finally {
+			limiter.release(host, start, timedHandler.getEnd(), dropped);
+		}
+	}
+
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String host = APICaller.getHost(url);
+		long start = limiter.acquire(host);
+		boolean dropped = false;
+		try {
+			return caller.postData(url, nameValuePairs);
+		} catch (FacebookException e) {
+			dropped = isDropped(e);
+			throw e;
+		} finally {
+			limiter.release(host, start, dropped);
+		}
+	}
+
+	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String host = APICaller.getHost(url);
+		long start = limiter.acquire(host);
+		boolean dropped = false;
+		try {
+			return caller.deleteData(url, nameValuePairs);
+		} catch (FacebookException e) {
+			dropped = isDropped(e);
+			throw e;
+		} finally {
+			limiter.release(host, start, dropped);
+		}
+	}
+
+	/**
+	 * An error facebook answered with was still a round trip, a timeout or connection failure wasn't
+	 */
+	private static boolean isDropped(FacebookException e) {
+		return e.getError() == null && e.getCause() instanceof IOException;
+	}
+
+	/**
+	 * Notes when the response arrives, so that the time the handler takes to parse it isn't counted as round trip time
+	 */
+	private static class TimedResponseHandler<T> implements ResponseHandler<T> {
+
+		private final ResponseHandler<T> handler;
+		private long end;
+
+		TimedResponseHandler(ResponseHandler<T> handler) {
+			this.handler = handler;
+		}
+
+		public T handle(Reader reader) throws FacebookException {
+			end = System.nanoTime();
+			return handler.handle(reader);
+		}
+
+		/**
+		 * @return When the response arrived, now if the handler wasn't called
+		 */
+		long getEnd() {
+			return (end == 0) ? System.nanoTime() : end;
+		}
+	}
+
+}
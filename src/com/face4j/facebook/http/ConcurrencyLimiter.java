@@ -0,0 +1,261 @@
+package com.face4j.facebook.http;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Limits the requests in flight to each host to a limit that follows the round trip times facebook serves them in,
+ * instead of a fixed pool size. <br>
+ *
+ * The limit is adjusted TCP Vegas style: the lowest round trip time seen recently is taken as the time a request takes
+ * without queueing, and limit * (1 - minRtt / rtt) as the number of requests queued at facebook. While that is small
+ * the limit grows, when it gets large the limit shrinks, so that the limit settles where facebook is kept busy without
+ * making the requests wait. Requests that fail without a response (timeouts, connection errors) shrink the limit by a
+ * tenth. <br>
+ *
+ * A request over the limit waits up to {@link #getMaxQueueWaitMillis()} for another one to complete and is then
+ * rejected with a FacebookException; with a wait of 0 it is rejected right away. The connection pools of the transport
+ * should be at least {@link #getMaxLimit()} connections, otherwise the pool caps the limit. <br>
+ *
+ * Used through {@link ConcurrencyLimitedAPICaller}, see
+ * {@link com.face4j.facebook.factory.FacebookFactory#setConcurrencyLimiter(ConcurrencyLimiter)}. This class is thread
+ * safe.
+ */
+public class ConcurrencyLimiter {
+
+	/**
+	 * The lowest round trip time is taken over windows of this many samples: when a window ends, the lowest time seen in
+	 * it replaces the older one, so that the limit follows facebook getting slower for good (or a route change) rather
+	 * than waiting for a latency it will not see again
+	 */
+	private static final int MIN_RTT_SAMPLES = 500;
+
+	private final int initialLimit;
+	private final int minLimit;
+	private final int maxLimit;
+	private long maxQueueWaitMillis = 1000;
+
+	private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<String, Limit>();
+
+	private final AtomicLong rejected = new AtomicLong();
+
+	/**
+	 * Starts at 15 requests per host, adapting between 1 and 100
+	 */
+	public ConcurrencyLimiter() {
+		this(APICaller.DEFAULT_MAX_CONNECTIONS, 1, 100);
+	}
+
+	public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+		if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+			throw new IllegalArgumentException("Must be 1 <= minLimit <= initialLimit <= maxLimit");
+		}
+		this.initialLimit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	public int getInitialLimit() {
+		return initialLimit;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	public long getMaxQueueWaitMillis() {
+		return maxQueueWaitMillis;
+	}
+
+	/**
+	 * How long a request over the limit waits for a slot before it is rejected. Default 1 second, 0 rejects right away.
+	 *
+	 * @param maxQueueWaitMillis
+	 */
+	public void setMaxQueueWaitMillis(long maxQueueWaitMillis) {
+		if (maxQueueWaitMillis < 0) {
+			throw new IllegalArgumentException("Must not be negative: " + maxQueueWaitMillis);
+		}
+		this.maxQueueWaitMillis = maxQueueWaitMillis;
+	}
+
+	/**
+	 * @return The current limit of the host, the initial limit for hosts that haven't been called yet
+	 */
+	public int getLimit(String host) {
+		Limit limit = limits.get(host);
+		return (limit == null) ? initialLimit : limit.getLimit();
+	}
+
+	/**
+	 * @return Requests to the host in flight right now
+	 */
+	public int getInFlight(String host) {
+		Limit limit = limits.get(host);
+		return (limit == null) ? 0 : limit.getInFlight();
+	}
+
+	/**
+	 * @return The lowest recent round trip time to the host in milliseconds, 0 if none has been measured yet
+	 */
+	public double getMinRttMillis(String host) {
+		Limit limit = limits.get(host);
+		return (limit == null) ? 0 : limit.getMinRttNanos() / 1e6;
+	}
+
+	/**
+	 * @return The current limit of every host called so far
+	 */
+	public Map<String, Integer> getLimits() {
+		Map<String, Integer> snapshot = new TreeMap<String, Integer>();
+		for (Map.Entry<String, Limit> entry : limits.entrySet()) {
+			snapshot.put(entry.getKey(), entry.getValue().getLimit());
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return Number of requests rejected because the limit of their host was reached
+	 */
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	/**
+	 * Waits for a slot to the host
+	 *
+	 * @return The start time of the request, to pass to {@link #release(String, long, boolean)}
+	 */
+	long acquire(String host) throws FacebookException {
+		Limit limit = limits.get(host);
+		if (limit == null) {
+			Limit created = new Limit();
+			limit = limits.putIfAbsent(host, created);
+			if (limit == null) {
+				limit = created;
+			}
+		}
+
+		long start = System.nanoTime();
+		try {
+			if (!limit.acquire(maxQueueWaitMillis)) {
+				rejected.incrementAndGet();
+				throw new FacebookException("Concurrency limit of " + limit.getLimit() + " requests to " + host
+						+ " reached, the request was rejected", null);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FacebookException("Interrupted while waiting to call facebook!", e);
+		} finally {
+			LimiterWaits.add(System.nanoTime() - start);
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Frees the slot and adjusts the limit
+	 *
+	 * @param start As returned by {@link #acquire(String)}
+	 * @param dropped True if the request failed without a response, it then says nothing about the round trip time
+	 */
+	void release(String host, long start, boolean dropped) {
+		release(host, start, System.nanoTime(), dropped);
+	}
+
+	/**
+	 * Same as {@link #release(String, long, boolean)} for a request whose round trip ended before the slot is freed,
+	 * e.g. when the response arrived and was then parsed while still holding the slot
+	 *
+	 * @param end System.nanoTime() when the response arrived
+	 */
+	void release(String host, long start, long end, boolean dropped) {
+		limits.get(host).release(end - start, dropped);
+	}
+
+	/**
+	 * Limit of one host
+	 */
+	private class Limit {
+
+		private double limit = initialLimit;
+		private int inFlight;
+		private long minRtt;
+		// lowest round trip time of the current window, becomes minRtt when the window ends
+		private long nextMinRtt;
+		private int samples;
+
+		synchronized boolean acquire(long maxWaitMillis) throws InterruptedException {
+			if (inFlight >= getLimit() && maxWaitMillis > 0) {
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+				for (long remaining = deadline - System.nanoTime(); inFlight >= getLimit() && remaining > 0; remaining = deadline
+						- System.nanoTime()) {
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+				}
+			}
+			if (inFlight >= getLimit()) {
+				return false;
+			}
+			inFlight++;
+			return true;
+		}
+
+		synchronized void release(long rtt, boolean dropped) {
+			// the limit is only judged by requests that used a good part of it, a mostly idle host says nothing about it
+			boolean busy = inFlight * 2 >= limit;
+			inFlight--;
+
+			if (dropped) {
+				limit = Math.max(minLimit, limit * 0.9);
+			} else if (rtt > 0) {
+				if (minRtt == 0 || rtt < minRtt) {
+					minRtt = rtt;
+				}
+				if (nextMinRtt == 0 || rtt < nextMinRtt) {
+					nextMinRtt = rtt;
+				}
+				if (++samples >= MIN_RTT_SAMPLES) {
+					minRtt = nextMinRtt;
+					nextMinRtt = 0;
+					samples = 0;
+				}
+
+				if (busy) {
+					// a full limit of requests completes per round trip, so the limit moves by log10(limit) per round trip
+					double queued = limit * (1 - (double) minRtt / rtt);
+					double log = Math.max(1, Math.log10(limit));
+					if (queued < 3 * log) {
+						limit = Math.min(maxLimit, limit + log / limit);
+					} else if (queued > 6 * log) {
+						limit = Math.max(minLimit, limit - log / limit);
+					}
+				}
+			}
+
+			// the limit may have grown, let every waiting request check
+			notifyAll();
+		}
+
+		synchronized int getLimit() {
+			return (int) limit;
+		}
+
+		synchronized int getInFlight() {
+			return inFlight;
+		}
+
+		synchronized long getMinRttNanos() {
+			return minRtt;
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.face4j.facebook.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Gzip/deflate response decoding shared by the callers. Bodies are decompressed as they are read, counting the bytes
+ * on both sides into a {@link TransferStats}.
+ */
+final class ContentEncoding {
+
+	/**
+	 * Value of the Accept-Encoding request header
+	 */
+	static final String ACCEPT_ENCODING = "gzip, deflate";
+
+	private ContentEncoding() {
+	}
+
+	/**
+	 * @param body The body as received, may be null
+	 * @param contentEncoding The Content-Encoding response header, may be null
+	 * @return The decoded body
+	 */
+	static InputStream decode(InputStream body, String contentEncoding, TransferStats stats) throws IOException {
+		if (body == null) {
+			body = new ByteArrayInputStream(new byte[0]);
+		}
+
+		String encoding = (contentEncoding == null) ? "" : contentEncoding.trim().toLowerCase();
+		boolean gzip = encoding.equals("gzip") || encoding.equals("x-gzip");
+		boolean deflate = encoding.equals("deflate");
+		stats.addResponse(gzip || deflate);
+
+		if (!gzip && !deflate) {
+			return new CountingInputStream(body, stats, true, true);
+		}
+
+		InputStream compressed = new CountingInputStream(body, stats, true, false);
+		InputStream decoded = gzip ? new GZIPInputStream(compressed) : inflate(compressed);
+		return new CountingInputStream(decoded, stats, false, true);
+	}
+
+	/**
+	 * Same as {@link #decode(InputStream, String, TransferStats)} for a body that has already been read completely
+	 */
+	static byte[] decode(byte[] body, String contentEncoding, TransferStats stats) throws IOException {
+		InputStream inputStream = decode(body == null ? null : new ByteArrayInputStream(body), contentEncoding, stats);
+		return readFully(inputStream);
+	}
+
+	static byte[] readFully(InputStream inputStream) throws IOException {
+		try {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+				outputStream.write(buffer, 0, read);
+			}
+			return outputStream.toByteArray();
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * "deflate" is supposed to be zlib wrapped but some servers send raw deflate, the first two bytes tell them apart
+	 */
+	private static InputStream inflate(InputStream compressed) throws IOException {
+		PushbackInputStream pushback = new PushbackInputStream(compressed, 2);
+		int first = pushback.read();
+		int second = pushback.read();
+		if (second != -1) {
+			pushback.unread(second);
+		}
+		if (first != -1) {
+			pushback.unread(first);
+		}
+		boolean zlib = first != -1 && second != -1 && (first & 0x0f) == 8 && ((first << 8) | second) % 31 == 0;
+		return new InflaterInputStream(pushback, new Inflater(!zlib));
+	}
+
+	/**
+	 * Adds the bytes read to the compressed and/or uncompressed count
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+
+		private final TransferStats stats;
+		private final boolean compressed;
+		private final boolean uncompressed;
+
+		CountingInputStream(InputStream in, TransferStats stats, boolean compressed, boolean uncompressed) {
+			super(in);
+			this.stats = stats;
+			this.compressed = compressed;
+			this.uncompressed = uncompressed;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				count(read);
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(n);
+			count(skipped);
+			return skipped;
+		}
+
+		private void count(long bytes) {
+			if (compressed) {
+				stats.addCompressedBytes(bytes);
+			}
+			if (uncompressed) {
+				stats.addUncompressedBytes(bytes);
+			}
+		}
+	}
+
+}
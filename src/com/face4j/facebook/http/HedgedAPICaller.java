@@ -0,0 +1,160 @@
+package com.face4j.facebook.http;
+
+import java.io.StringReader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Wraps a caller so that GETs not answered within the delay of a {@link HedgingPolicy} are sent a second time; the
+ * first successful response is returned and the other request is cancelled. If one of them fails the other one is
+ * still waited for, the error is only thrown if both fail. <br>
+ *
+ * Both requests run on the policy's executor while the calling thread waits, so that it can return as soon as either
+ * answers whatever the transport. A GET the executor has no thread for is made on the calling thread without a hedge,
+ * and the hedge is left out when there is no thread for it. Cancelling interrupts the request's thread: the async
+ * transports (ASYNC_NIO, JDK_HTTP_CLIENT) then drop the request, the blocking ones finish it and the response is
+ * discarded. <br>
+ *
+ * Streaming GETs are hedged the same way, the body of the request that wins is handed to the handler once it is in,
+ * so the handler only ever reads one response. POSTs and DELETEs are passed straight to the wrapped caller, they are
+ * never hedged.
+ */
+public class HedgedAPICaller implements StreamingAPICallerInterface {
+
+	private final APICallerInterface caller;
+	private final HedgingPolicy policy;
+
+	public HedgedAPICaller(APICallerInterface caller, HedgingPolicy policy) {
+		if (caller == null || policy == null) {
+			throw new IllegalArgumentException("caller and policy must not be null");
+		}
+		this.caller = caller;
+		this.policy = policy;
+	}
+
+	public APICallerInterface getCaller() {
+		return caller;
+	}
+
+	public HedgingPolicy getPolicy() {
+		return policy;
+	}
+
+	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String host = APICaller.getHost(url);
+		policy.requested();
+
+		CompletionService<String> completionService = new ExecutorCompletionService<String>(policy.getExecutor());
+		Future<String> primary;
+		try {
+			primary = completionService.submit(new Attempt(host, url, nameValuePairs));
+		} catch (RejectedExecutionException e) {
+			// every thread is busy, don't hold up the GET waiting for one
+			return new Attempt(host, url, nameValuePairs).call();
+		}
+		Future<String> hedge = null;
+		int outstanding = 1;
+		FacebookException failure = null;
+
+		try {
+			Future<String> done = completionService.poll(policy.getDelayMicros(host), TimeUnit.MICROSECONDS);
+			if (done == null && policy.tryHedge()) {
+				try {
+					hedge = completionService.submit(new Attempt(host, url, nameValuePairs));
+					outstanding++;
+				} catch (RejectedExecutionException e) {
+					// no thread for the hedge, just wait for the original
+				}
+			}
+
+			while (outstanding > 0) {
+				if (done == null) {
+					done = completionService.take();
+				}
+				outstanding--;
+				try {
+					String response = done.get();
+					if (done == hedge) {
+						policy.hedgeWon();
+					}
+					return response;
+				} catch (ExecutionException e) {
+					if (failure == null || done == primary) {
+						failure = toFacebookException(e);
+					}
+				}
+				done = null;
+			}
+			throw failure;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FacebookException("Interrupted while waiting for facebook!", e);
+		} finally {
+			primary.cancel(true);
+			if (hedge != null) {
+				hedge.cancel(true);
+			}
+		}
+	}
+
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException {
+		// the loser may still be reading when the winner is done, so neither can stream into the handler
+		return handler.handle(new StringReader(getData(url, nameValuePairs)));
+	}
+
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return caller.postData(url, nameValuePairs);
+	}
+
+	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return caller.deleteData(url, nameValuePairs);
+	}
+
+	private static FacebookException toFacebookException(ExecutionException e) {
+		if (e.getCause() instanceof FacebookException) {
+			return (FacebookException) e.getCause();
+		}
+		return new FacebookException("Exception while calling facebook!", e);
+	}
+
+	/**
+	 * One of the requests, recording its response time when it got an answer
+	 */
+	private class Attempt implements Callable<String> {
+
+		private final String host;
+		private final String url;
+		private final NameValuePair[] nameValuePairs;
+
+		Attempt(String host, String url, NameValuePair[] nameValuePairs) {
+			this.host = host;
+			this.url = url;
+			this.nameValuePairs = nameValuePairs;
+		}
+
+		public String call() throws FacebookException {
+			long start = System.nanoTime();
+			try {
+				String response = caller.getData(url, nameValuePairs);
+				policy.record(host, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+				return response;
+			} catch (FacebookException e) {
+				if (e.getError() != null) {
+					// facebook answered, that's a response time too
+					policy.record(host, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+				}
+				throw e;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,280 @@
+package com.face4j.facebook.http;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * When to send a second, hedged, copy of a GET that hasn't been answered yet: after the given percentile of the recent
+ * response times of its host, and only while the hedged requests stay within a budget of the fraction of requests they
+ * may add. <br>
+ *
+ * Until {@link #MIN_SAMPLES} responses of a host have been seen, its requests are hedged after the initial delay. The
+ * budget starts empty, every GET adds the budget fraction of a request to it and every hedged request takes a whole
+ * one out, so at most that fraction of the requests are extra. <br>
+ *
+ * Used through {@link HedgedAPICaller}, see
+ * {@link com.face4j.facebook.factory.FacebookFactory#setHedgingPolicy(HedgingPolicy)}. This class is thread safe.
+ */
+public class HedgingPolicy {
+
+	/**
+	 * Responses of a host needed before its percentile is used
+	 */
+	public static final int MIN_SAMPLES = 50;
+
+	private static final int WINDOW = 1000;
+	private static final int RECOMPUTE_EVERY = 50;
+	private static final double MAX_CREDITS = 10;
+
+	/**
+	 * Threads of the default executor, the GETs made while all of them are busy are not hedged
+	 */
+	public static final int DEFAULT_MAX_THREADS = 2 * APICaller.DEFAULT_MAX_CONNECTIONS;
+
+	private final int percentile;
+	private final double budget;
+	private long initialDelayMillis = 1000;
+	private long minDelayMillis = 5;
+
+	private final ExecutorService executor;
+
+	private final ConcurrentMap<String, Latencies> latencies = new ConcurrentHashMap<String, Latencies>();
+
+	private double credits;
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong hedged = new AtomicLong();
+	private final AtomicLong hedgeWins = new AtomicLong();
+
+	/**
+	 * Hedges after the 95th percentile with a budget of 5% extra requests
+	 */
+	public HedgingPolicy() {
+		this(95, 0.05);
+	}
+
+	/**
+	 * @param percentile Of the recent response times after which a request is hedged, 50 to 99
+	 * @param budget Fraction of extra requests allowed, e.g. 0.05 for 5%
+	 */
+	public HedgingPolicy(int percentile, double budget) {
+		this(percentile, budget, DEFAULT_MAX_THREADS);
+	}
+
+	/**
+	 * @param percentile Of the recent response times after which a request is hedged, 50 to 99
+	 * @param budget Fraction of extra requests allowed, e.g. 0.05 for 5%
+	 * @param maxThreads Threads running the requests, the GETs made while all of them are busy are made on the calling
+	 *          thread without a hedge
+	 */
+	public HedgingPolicy(int percentile, double budget, int maxThreads) {
+		this(percentile, budget, newExecutor(maxThreads));
+	}
+
+	/**
+	 * @param percentile Of the recent response times after which a request is hedged, 50 to 99
+	 * @param budget Fraction of extra requests allowed, e.g. 0.05 for 5%
+	 * @param executor Runs the requests, both the original and the hedged one. It must not queue them, a request
+	 *          waiting for a thread defeats the hedge; a GET it rejects is made on the calling thread without a hedge.
+	 */
+	public HedgingPolicy(int percentile, double budget, ExecutorService executor) {
+		if (percentile < 50 || percentile > 99) {
+			throw new IllegalArgumentException("percentile must be between 50 and 99: " + percentile);
+		}
+		if (budget <= 0 || budget > 1) {
+			throw new IllegalArgumentException("budget must be more than 0 and at most 1: " + budget);
+		}
+		this.percentile = percentile;
+		this.budget = budget;
+		this.executor = executor;
+	}
+
+	public int getPercentile() {
+		return percentile;
+	}
+
+	public double getBudget() {
+		return budget;
+	}
+
+	public long getInitialDelayMillis() {
+		return initialDelayMillis;
+	}
+
+	/**
+	 * Hedge delay used until enough response times of a host are known. Default 1 second.
+	 *
+	 * @param initialDelayMillis
+	 */
+	public void setInitialDelayMillis(long initialDelayMillis) {
+		if (initialDelayMillis < 0) {
+			throw new IllegalArgumentException("Must not be negative: " + initialDelayMillis);
+		}
+		this.initialDelayMillis = initialDelayMillis;
+	}
+
+	public long getMinDelayMillis() {
+		return minDelayMillis;
+	}
+
+	/**
+	 * Requests are never hedged sooner than this. Default 5 milliseconds.
+	 *
+	 * @param minDelayMillis
+	 */
+	public void setMinDelayMillis(long minDelayMillis) {
+		if (minDelayMillis < 0) {
+			throw new IllegalArgumentException("Must not be negative: " + minDelayMillis);
+		}
+		this.minDelayMillis = minDelayMillis;
+	}
+
+	/**
+	 * @return The delay after which a GET to the host is hedged right now
+	 */
+	public long getDelayMillis(String host) {
+		return TimeUnit.MICROSECONDS.toMillis(getDelayMicros(host));
+	}
+
+	long getDelayMicros(String host) {
+		Latencies hostLatencies = latencies.get(host);
+		long delay = (hostLatencies == null) ? -1 : hostLatencies.getPercentile();
+		return Math.max(TimeUnit.MILLISECONDS.toMicros(minDelayMillis), delay < 0 ? TimeUnit.MILLISECONDS
+				.toMicros(initialDelayMillis) : delay);
+	}
+
+	/**
+	 * @return Number of GETs made
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * @return Number of hedged requests sent
+	 */
+	public long getHedgedCount() {
+		return hedged.get();
+	}
+
+	/**
+	 * @return Number of hedged requests that answered before the original one
+	 */
+	public long getHedgeWinCount() {
+		return hedgeWins.get();
+	}
+
+	/**
+	 * Stops the threads of the executor
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Counts a GET and adds its share to the budget
+	 */
+	void requested() {
+		requests.incrementAndGet();
+		synchronized (this) {
+			credits = Math.min(MAX_CREDITS, credits + budget);
+		}
+	}
+
+	/**
+	 * @return True if the budget allows another hedged request, which is then taken out of it
+	 */
+	boolean tryHedge() {
+		synchronized (this) {
+			if (credits < 1) {
+				return false;
+			}
+			credits -= 1;
+		}
+		hedged.incrementAndGet();
+		return true;
+	}
+
+	void hedgeWon() {
+		hedgeWins.incrementAndGet();
+	}
+
+	/**
+	 * Records the response time of a request that got an answer
+	 */
+	void record(String host, long micros) {
+		Latencies hostLatencies = latencies.get(host);
+		if (hostLatencies == null) {
+			Latencies created = new Latencies();
+			hostLatencies = latencies.putIfAbsent(host, created);
+			if (hostLatencies == null) {
+				hostLatencies = created;
+			}
+		}
+		hostLatencies.add(micros);
+	}
+
+	private static ExecutorService newExecutor(int maxThreads) {
+		if (maxThreads < 1) {
+			throw new IllegalArgumentException("maxThreads must be at least 1: " + maxThreads);
+		}
+		// a thread per request in flight up to maxThreads, the rest are rejected rather than queued. Idle threads are
+		// let go after a minute.
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), new ThreadFactory() {
+
+					private final AtomicInteger count = new AtomicInteger();
+
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "face4j-hedge-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		return executor;
+	}
+
+	/**
+	 * The last response times of a host, in microseconds. The percentile is recomputed every
+	 * {@link #RECOMPUTE_EVERY} samples rather than on every request.
+	 */
+	private class Latencies {
+
+		private final long[] samples = new long[WINDOW];
+		private int count;
+		private int next;
+		private int sinceRecompute;
+
+		private volatile long percentile = -1;
+
+		synchronized void add(long micros) {
+			samples[next] = micros;
+			next = (next + 1) % samples.length;
+			count = Math.min(count + 1, samples.length);
+
+			if (count >= MIN_SAMPLES && (++sinceRecompute >= RECOMPUTE_EVERY || percentile < 0)) {
+				sinceRecompute = 0;
+				long[] sorted = Arrays.copyOf(samples, count);
+				Arrays.sort(sorted);
+				percentile = sorted[Math.min(count - 1, (int) Math.ceil(count * HedgingPolicy.this.percentile / 100.0) - 1)];
+			}
+		}
+
+		long getPercentile() {
+			return percentile;
+		}
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.face4j.facebook.http;
+
+/**
+ * Time the current thread has spent waiting in a {@link RateLimiter} or a {@link ConcurrencyLimiter}. The
+ * {@link CircuitBreaker} wraps both limiters and takes the waits out of a call's duration, so that our own throttling
+ * never makes a call slow in its eyes.
+ */
+final class LimiterWaits {
+
+	private static final ThreadLocal<long[]> waited = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[1];
+		}
+	};
+
+	private LimiterWaits() {
+	}
+
+	/**
+	 * @return Nanoseconds waited by the current thread so far, only the difference between two readings means anything
+	 */
+	static long get() {
+		return waited.get()[0];
+	}
+
+	static void add(long nanos) {
+		if (nanos > 0) {
+			waited.get()[0] += nanos;
+		}
+	}
+
+}
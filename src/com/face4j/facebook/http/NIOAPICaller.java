@@ -0,0 +1,983 @@
+package com.face4j.facebook.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+
+import org.apache.commons.httpclient.HttpStatus;
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.util.JSONToObjectTransformer;
+import com.face4j.facebook.util.Parameters;
+
+/**
+ * Non blocking http caller. All requests are multiplexed on a single selector thread, so the number of calls in
+ * flight is not bound by the number of threads waiting on them. Like {@link APICaller}, the raw response is returned
+ * without processing.
+ *
+ * A response is complete once its Content-Length or final chunk has been read; one without either is read until the
+ * server closes the connection. A connection closed before the response is complete fails the request. With
+ * keep-alive on (the default), the connection of a complete response is kept for the next request to the same host,
+ * up to graphMaxConnections idle connections per host, each closed after the idle connection timeout. <br>
+ *
+ * The connect and read timeouts of the {@link TransportConfig} are enforced by the selector thread: a request that
+ * isn't connected in time, or gets no bytes for the read timeout, fails and its connection is closed. Cancelling the
+ * future closes the connection right away. <br>
+ *
+ * The selector thread is started on the first request and runs until {@link #shutdown()}.
+ */
+public class NIOAPICaller implements AsyncAPICallerInterface {
+
+	private static Logger logger = Logger.getLogger(NIOAPICaller.class.getName());
+
+	private static final NIOAPICaller caller = new NIOAPICaller();
+
+	private static final String CHARSET = "UTF-8";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private volatile Loop loop;
+
+	private final long connectTimeoutNanos;
+	private final long readTimeoutNanos;
+	private final long idleTimeoutNanos;
+	private final boolean keepAlive;
+	private final int maxIdlePerHost;
+
+	private NIOAPICaller() {
+		this(new TransportConfig());
+	}
+
+	/**
+	 * A caller with its own selector thread, started on the first request
+	 *
+	 * @param config The timeouts, keep-alive and graphMaxConnections (as the idle connections kept per host) are used
+	 */
+	public NIOAPICaller(TransportConfig config) {
+		this.connectTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getConnectTimeout());
+		this.readTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getReadTimeout());
+		this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(config.getIdleConnectionTimeout());
+		this.keepAlive = config.isKeepAlive();
+		this.maxIdlePerHost = config.getGraphMaxConnections();
+	}
+
+	public static NIOAPICaller getInstance() {
+		return caller;
+	}
+
+	public Future<String> getData(String url, NameValuePair[] nameValuePairs) {
+		return execute("GET", url, nameValuePairs);
+	}
+
+	public Future<String> postData(String url, NameValuePair[] nameValuePairs) {
+		return execute("POST", url, nameValuePairs);
+	}
+
+	public Future<String> deleteData(String url, NameValuePair[] nameValuePairs) {
+		return execute("DELETE", url, nameValuePairs);
+	}
+
+	/**
+	 * Stops the selector thread and closes its connections, requests still in flight fail. A new selector thread is
+	 * started if the caller is used again.
+	 */
+	public void shutdown() {
+		Loop current;
+		synchronized (this) {
+			current = loop;
+			loop = null;
+		}
+		if (current != null) {
+			current.stop();
+		}
+	}
+
+	private Future<String> execute(String method, String url, NameValuePair[] nameValuePairs) {
+		final Loop current;
+		try {
+			current = getLoop();
+		} catch (IOException e) {
+			APIResponseFuture future = new APIResponseFuture();
+			future.fail(new FacebookException("IO Exception while calling facebook!", e));
+			return future;
+		}
+
+		APIResponseFuture future = new APIResponseFuture() {
+			@Override
+			public boolean cancel(boolean mayInterruptIfRunning) {
+				boolean cancelled = super.cancel(mayInterruptIfRunning);
+				if (cancelled) {
+					// the selector thread closes the connection of a done future on its next pass
+					current.selector.wakeup();
+				}
+				return cancelled;
+			}
+		};
+		try {
+			// resolve on the calling thread, a DNS lookup must never stall the selector
+			current.submit(new Exchange(method, new URL(url), nameValuePairs, future, keepAlive));
+		} catch (IOException e) {
+			future.fail(new FacebookException("IO Exception while calling facebook!", e));
+		}
+		return future;
+	}
+
+	private Loop getLoop() throws IOException {
+		Loop current = loop;
+		if (current == null) {
+			synchronized (this) {
+				if (loop == null) {
+					loop = new Loop();
+				}
+				current = loop;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * The selector thread with its connections, idle ones are pooled by host
+	 */
+	private class Loop implements Runnable {
+
+		private final Selector selector;
+		private final Queue<Exchange> pending = new ConcurrentLinkedQueue<Exchange>();
+		private final Map<String, Deque<Connection>> idle = new HashMap<String, Deque<Connection>>();
+		private volatile boolean stopped;
+
+		Loop() throws IOException {
+			selector = Selector.open();
+			Thread ioThread = new Thread(this, "face4j-nio");
+			ioThread.setDaemon(true);
+			ioThread.start();
+		}
+
+		void submit(Exchange exchange) {
+			pending.add(exchange);
+			if (!stopped) {
+				selector.wakeup();
+			} else if (pending.remove(exchange)) {
+				// shut down in the meantime, the selector thread may already be gone
+				exchange.fail(new IOException("The caller has been shut down"));
+			}
+		}
+
+		void stop() {
+			stopped = true;
+			selector.wakeup();
+		}
+
+		public void run() {
+			while (!stopped) {
+				try {
+					Exchange exchange = null;
+					while ((exchange = pending.poll()) != null) {
+						dispatch(exchange);
+					}
+
+					long wait = expire();
+					if (wait > 0) {
+						selector.select(wait);
+					} else {
+						selector.select();
+					}
+
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()) {
+						SelectionKey key = keys.next();
+						keys.remove();
+						((Connection) key.attachment()).handle(key);
+					}
+				} catch (Exception e) {
+					// Connections fail their own futures, anything reaching here is a problem with the selector itself
+					logger.log(Level.SEVERE, "Error in the face4j selector loop", e);
+				}
+			}
+			closeAll();
+		}
+
+		private void dispatch(Exchange exchange) {
+			if (exchange.future.isDone()) {
+				return;
+			}
+			Connection connection = takeIdle(exchange.poolKey);
+			if (connection != null) {
+				connection.start(exchange);
+			} else {
+				new Connection(exchange).open(exchange);
+			}
+		}
+
+		/**
+		 * @return The most recently used idle connection to the host, null if there is none
+		 */
+		private Connection takeIdle(String poolKey) {
+			Deque<Connection> connections = idle.get(poolKey);
+			while (connections != null && !connections.isEmpty()) {
+				Connection connection = connections.pollLast();
+				if (connection.isOpen()) {
+					return connection;
+				}
+			}
+			return null;
+		}
+
+		private void release(Connection connection) {
+			Deque<Connection> connections = idle.get(connection.poolKey);
+			if (connections == null) {
+				connections = new ArrayDeque<Connection>();
+				idle.put(connection.poolKey, connections);
+			}
+			if (connections.size() < maxIdlePerHost) {
+				connections.addLast(connection);
+			} else {
+				connection.close();
+			}
+		}
+
+		private void removeIdle(Connection connection) {
+			Deque<Connection> connections = idle.get(connection.poolKey);
+			if (connections != null) {
+				connections.remove(connection);
+			}
+		}
+
+		/**
+		 * Sends the request again on a new connection, picked up at the start of the next pass
+		 */
+		private void retry(Exchange exchange) {
+			exchange.reset();
+			pending.add(exchange);
+		}
+
+		/**
+		 * Closes the connections of cancelled requests and the idle ones past the idle timeout, fails the requests that
+		 * are past their deadline
+		 *
+		 * @return Milliseconds until the next deadline, 0 if none of the connections has one
+		 */
+		private long expire() {
+			long now = System.nanoTime();
+			long next = Long.MAX_VALUE;
+			// closing a channel only cancels its key, the key set itself changes during the next select
+			for (SelectionKey key : selector.keys()) {
+				Connection connection = (Connection) key.attachment();
+				if (!key.isValid()) {
+					continue;
+				}
+				if (connection.exchange != null && connection.exchange.future.isDone()) {
+					connection.close();
+				} else if (connection.deadline != 0) {
+					long remaining = connection.deadline - now;
+					if (remaining <= 0) {
+						connection.timeOut();
+					} else {
+						next = Math.min(next, remaining);
+					}
+				}
+			}
+			return (next == Long.MAX_VALUE) ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(next + 999999));
+		}
+
+		private void closeAll() {
+			IOException shutdown = new IOException("The caller has been shut down");
+			for (SelectionKey key : selector.keys()) {
+				((Connection) key.attachment()).abort(shutdown);
+			}
+			idle.clear();
+			Exchange exchange = null;
+			while ((exchange = pending.poll()) != null) {
+				exchange.fail(shutdown);
+			}
+			try {
+				selector.close();
+			} catch (IOException e) {
+				logger.log(Level.WARNING, "Unable to close the face4j selector", e);
+			}
+		}
+
+		/**
+		 * One connection, carrying one exchange at a time. Only ever touched by the selector thread.
+		 */
+		private class Connection {
+
+			private final String poolKey;
+			private final URL url;
+			private final InetSocketAddress address;
+
+			/**
+			 * The request/response in progress, null while the connection is idle
+			 */
+			private Exchange exchange;
+
+			/**
+			 * System.nanoTime() by which the connection must be made, the next bytes read or an idle connection
+			 * reused, 0 for no limit
+			 */
+			private long deadline;
+			private boolean connected;
+			private boolean reused;
+
+			private SocketChannel channel;
+			private SelectionKey key;
+			private SSLEngine engine;
+			private ByteBuffer netIn;
+			private ByteBuffer netOut;
+			private ByteBuffer appIn;
+			private boolean eof;
+
+			Connection(Exchange exchange) {
+				this.poolKey = exchange.poolKey;
+				this.url = exchange.url;
+				this.address = exchange.address;
+			}
+
+			void open(Exchange exchange) {
+				this.exchange = exchange;
+				try {
+					if ("https".equalsIgnoreCase(url.getProtocol())) {
+						engine = SSLContext.getDefault().createSSLEngine(url.getHost(), address.getPort());
+						engine.setUseClientMode(true);
+						SSLParameters parameters = engine.getSSLParameters();
+						parameters.setEndpointIdentificationAlgorithm("HTTPS");
+						engine.setSSLParameters(parameters);
+						netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+						netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+						appIn = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+					} else {
+						netIn = ByteBuffer.allocate(BUFFER_SIZE);
+					}
+
+					channel = SocketChannel.open();
+					channel.configureBlocking(false);
+					setDeadline(connectTimeoutNanos);
+					if (channel.connect(address)) {
+						// loopback and some proxies connect straight away, OP_CONNECT would then never fire
+						connected();
+						key = channel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, this);
+					} else {
+						key = channel.register(selector, SelectionKey.OP_CONNECT, this);
+					}
+				} catch (IOException e) {
+					lost(e);
+				} catch (GeneralSecurityException e) {
+					close();
+					this.exchange = null;
+					exchange.future.fail(new FacebookException("Unable to initialise SSL while calling facebook!", e));
+				} catch (RuntimeException e) {
+					// e.g. an UnresolvedAddressException from connect
+					close();
+					this.exchange = null;
+					exchange.future.fail(new FacebookException("Exception while calling facebook!", e));
+				}
+			}
+
+			/**
+			 * Sends the exchange on this idle connection
+			 */
+			void start(Exchange exchange) {
+				this.exchange = exchange;
+				reused = true;
+				setDeadline(readTimeoutNanos);
+				key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+
+			boolean isOpen() {
+				return channel != null && channel.isOpen();
+			}
+
+			void handle(SelectionKey key) {
+				if (exchange == null) {
+					idleEvent();
+					return;
+				}
+				if (exchange.future.isDone()) {
+					// cancelled by the caller, the rest of the response can't be told apart from the next one
+					close();
+					exchange = null;
+					return;
+				}
+				try {
+					if (key.isConnectable()) {
+						if (!channel.finishConnect()) {
+							return;
+						}
+						connected();
+					}
+
+					if (key.isReadable()) {
+						int read = channel.read(netIn);
+						if (read == -1) {
+							eof = true;
+						} else if (read > 0) {
+							setDeadline(readTimeoutNanos);
+						}
+					}
+
+					if (engine == null) {
+						pumpPlain();
+					} else {
+						pumpSecure();
+					}
+
+					if (exchange.response.isComplete()) {
+						complete();
+					} else if (eof) {
+						closed();
+					} else {
+						key.interestOps(SelectionKey.OP_READ | (hasPendingWrites() ? SelectionKey.OP_WRITE : 0));
+					}
+				} catch (IOException e) {
+					lost(e);
+				} catch (RuntimeException e) {
+					close();
+					Exchange failed = exchange;
+					exchange = null;
+					failed.future.fail(new FacebookException("Exception while calling facebook!", e));
+				}
+			}
+
+			/**
+			 * Anything arriving on an idle connection other than TLS housekeeping is the server closing it, or bytes
+			 * that belong to no request; either way the connection can't be used any more
+			 */
+			private void idleEvent() {
+				boolean usable = false;
+				try {
+					int read = channel.read(netIn);
+					if (read > -1 && engine != null) {
+						unwrap();
+						usable = !eof && appIn.position() == 0
+								&& engine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
+					}
+				} catch (IOException e) {
+					// closed below
+				}
+				if (!usable) {
+					close();
+					removeIdle(this);
+				}
+			}
+
+			private void connected() throws SSLException {
+				connected = true;
+				setDeadline(readTimeoutNanos);
+				if (engine != null) {
+					engine.beginHandshake();
+				}
+			}
+
+			private boolean hasPendingWrites() {
+				return engine == null ? exchange.request.hasRemaining() : netOut.position() > 0;
+			}
+
+			private void pumpPlain() throws IOException {
+				if (exchange.request.hasRemaining()) {
+					channel.write(exchange.request);
+				}
+				netIn.flip();
+				exchange.response.write(netIn);
+				netIn.clear();
+			}
+
+			private void pumpSecure() throws IOException {
+				boolean progress = true;
+				while (progress) {
+					switch (engine.getHandshakeStatus()) {
+					case NEED_TASK:
+						Runnable task = null;
+						while ((task = engine.getDelegatedTask()) != null) {
+							task.run();
+						}
+						break;
+					case NEED_WRAP:
+						progress = wrap(Exchange.EMPTY);
+						break;
+					case NEED_UNWRAP:
+						progress = unwrap();
+						break;
+					default:
+						progress = (exchange.request.hasRemaining() && wrap(exchange.request)) | unwrap();
+					}
+				}
+				flush();
+			}
+
+			private boolean wrap(ByteBuffer source) throws IOException {
+				flush();
+				if (netOut.position() > 0) {
+					// socket is full, wait for OP_WRITE
+					return false;
+				}
+				SSLEngineResult result = engine.wrap(source, netOut);
+				switch (result.getStatus()) {
+				case BUFFER_OVERFLOW:
+					netOut = enlarge(netOut, engine.getSession().getPacketBufferSize());
+					return true;
+				case CLOSED:
+					return false;
+				default:
+					flush();
+					return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+				}
+			}
+
+			/**
+			 * Decrypted bytes go to the response of the exchange, or stay in appIn while the connection is idle
+			 */
+			private boolean unwrap() throws SSLException {
+				netIn.flip();
+				SSLEngineResult result = engine.unwrap(netIn, appIn);
+				netIn.compact();
+
+				if (exchange != null) {
+					appIn.flip();
+					exchange.response.write(appIn);
+					appIn.clear();
+				}
+
+				switch (result.getStatus()) {
+				case BUFFER_UNDERFLOW:
+					if (!netIn.hasRemaining()) {
+						netIn = enlarge(netIn, engine.getSession().getPacketBufferSize());
+					}
+					return false;
+				case BUFFER_OVERFLOW:
+					appIn = enlarge(appIn, engine.getSession().getApplicationBufferSize());
+					return true;
+				case CLOSED:
+					eof = true;
+					return false;
+				default:
+					return result.bytesConsumed() > 0 || result.bytesProduced() > 0;
+				}
+			}
+
+			private void flush() throws IOException {
+				if (netOut.position() > 0) {
+					netOut.flip();
+					channel.write(netOut);
+					netOut.compact();
+				}
+			}
+
+			/**
+			 * The response is complete, the connection goes back to the pool unless either side asked to close it
+			 */
+			private void complete() {
+				Exchange done = exchange;
+				exchange = null;
+				if (keepAlive && !eof && done.response.isReusable() && (engine == null || netIn.position() == 0)) {
+					setDeadline(idleTimeoutNanos);
+					key.interestOps(SelectionKey.OP_READ);
+					release(this);
+				} else {
+					close();
+				}
+				done.finish();
+			}
+
+			/**
+			 * The server closed the connection before the response was complete, which is only fine for a response
+			 * delimited by the end of the connection. A reused connection closed before any response bytes was most
+			 * likely closed by the server while it was idle, a request other than a POST is then sent again.
+			 */
+			private void closed() {
+				Exchange done = exchange;
+				exchange = null;
+				close();
+				if (reused && done.canRetry()) {
+					retry(done);
+				} else if (done.response.isDelimitedByClose()) {
+					done.finish();
+				} else if (done.response.getStatusCode() < 0) {
+					done.fail(new IOException("Connection closed before a response was received from " + url.getHost()));
+				} else {
+					done.fail(new IOException("Connection closed before the whole response was received from "
+							+ url.getHost()));
+				}
+			}
+
+			private void lost(IOException e) {
+				Exchange done = exchange;
+				exchange = null;
+				close();
+				if (done == null) {
+					return;
+				}
+				if (reused && done.canRetry()) {
+					retry(done);
+				} else {
+					done.fail(e);
+				}
+			}
+
+			private void setDeadline(long timeoutNanos) {
+				if (timeoutNanos <= 0) {
+					deadline = 0;
+				} else {
+					// nanoTime may be anything, even 0, which stands for no deadline
+					deadline = System.nanoTime() + timeoutNanos;
+					if (deadline == 0) {
+						deadline = 1;
+					}
+				}
+			}
+
+			void timeOut() {
+				if (exchange == null) {
+					// idle for too long
+					close();
+					removeIdle(this);
+				} else {
+					abort(new SocketTimeoutException((connected ? "Read" : "Connect") + " timed out calling "
+							+ url.getHost()));
+				}
+			}
+
+			void abort(IOException e) {
+				Exchange done = exchange;
+				exchange = null;
+				close();
+				if (done != null) {
+					done.fail(e);
+				}
+			}
+
+			void close() {
+				if (channel != null) {
+					try {
+						channel.close();
+					} catch (IOException e) {
+						// nothing more to do with this connection
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * One request/response. Only ever touched by the selector thread once it has been queued.
+	 */
+	private static class Exchange {
+
+		private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+		private final String method;
+		private final URL url;
+		private final InetSocketAddress address;
+
+		/**
+		 * scheme://host:port, the connections to it are pooled together
+		 */
+		private final String poolKey;
+		private final ByteBuffer request;
+		private final APIResponseFuture future;
+		private RawResponse response = new RawResponse();
+		private boolean retried;
+
+		Exchange(String method, URL url, NameValuePair[] nameValuePairs, APIResponseFuture future, boolean keepAlive)
+				throws IOException {
+			this.method = method;
+			this.url = url;
+			this.future = future;
+			int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+			this.address = new InetSocketAddress(url.getHost(), port);
+			if (address.isUnresolved()) {
+				throw new UnknownHostException(url.getHost());
+			}
+			this.poolKey = url.getProtocol().toLowerCase(Locale.ENGLISH) + "://"
+					+ url.getHost().toLowerCase(Locale.ENGLISH) + ":" + port;
+
+			String params = Parameters.encode(nameValuePairs);
+			String path = (url.getPath() == null || url.getPath().length() == 0) ? "/" : url.getPath();
+			String query = url.getQuery();
+			byte[] body = null;
+
+			if ("POST".equals(method)) {
+				body = params.getBytes(CHARSET);
+			} else if (params.length() > 0) {
+				query = (query == null) ? params : query + "&" + params;
+			}
+
+			StringBuilder head = new StringBuilder(256);
+			head.append(method).append(' ').append(path);
+			if (query != null) {
+				head.append('?').append(query);
+			}
+			head.append(" HTTP/1.1\r\n");
+			head.append("Host: ").append(url.getHost());
+			if (url.getPort() != -1) {
+				head.append(':').append(url.getPort());
+			}
+			head.append("\r\n");
+			if (!keepAlive) {
+				head.append("Connection: close\r\n");
+			}
+			if (body != null) {
+				head.append("Content-Type: application/x-www-form-urlencoded\r\n");
+				head.append("Content-Length: ").append(body.length).append("\r\n");
+			}
+			head.append("\r\n");
+
+			byte[] headBytes = head.toString().getBytes("ISO-8859-1");
+			request = ByteBuffer.allocate(headBytes.length + (body == null ? 0 : body.length));
+			request.put(headBytes);
+			if (body != null) {
+				request.put(body);
+			}
+			request.flip();
+		}
+
+		/**
+		 * Only once, only if nothing of the response arrived, and never a POST which the server may have acted on
+		 */
+		boolean canRetry() {
+			return !retried && response.size() == 0 && !"POST".equals(method);
+		}
+
+		void reset() {
+			retried = true;
+			request.rewind();
+			response = new RawResponse();
+		}
+
+		void finish() {
+			String body = response.getBody();
+			int statusCode = response.getStatusCode();
+			if (statusCode != HttpStatus.SC_OK) {
+				future.fail(new FacebookException(JSONToObjectTransformer.getError(body, statusCode)));
+			} else {
+				future.complete(body);
+			}
+		}
+
+		void fail(IOException e) {
+			future.fail(new FacebookException("IO Exception while calling facebook!", e));
+		}
+	}
+
+	private static ByteBuffer enlarge(ByteBuffer buffer, int minimum) {
+		ByteBuffer enlarged = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, minimum));
+		buffer.flip();
+		enlarged.put(buffer);
+		return enlarged;
+	}
+
+	/**
+	 * Accumulates the raw response bytes and knows when a complete http response has been read
+	 */
+	private static class RawResponse extends ByteArrayOutputStream {
+
+		private int headerEnd = -1;
+		private int scanned = 0;
+		private int statusCode = -1;
+		private int contentLength = -1;
+		private boolean chunked;
+		private boolean bodyless;
+		private boolean keepAlive;
+
+		/**
+		 * Where the response ends, once it is complete
+		 */
+		private int messageEnd = -1;
+
+		private int chunkPosition;
+		private boolean lastChunk;
+		private ByteArrayOutputStream dechunked;
+
+		RawResponse() {
+			super(BUFFER_SIZE);
+		}
+
+		void write(ByteBuffer buffer) {
+			write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			buffer.position(buffer.limit());
+		}
+
+		int getStatusCode() {
+			parseHead();
+			return statusCode;
+		}
+
+		boolean isComplete() {
+			if (!parseHead()) {
+				return false;
+			}
+			if (bodyless) {
+				messageEnd = headerEnd;
+			} else if (chunked) {
+				readChunks();
+			} else if (contentLength > -1 && count - headerEnd >= contentLength) {
+				messageEnd = headerEnd + contentLength;
+			}
+			return messageEnd > -1;
+		}
+
+		/**
+		 * @return true if the response has neither a Content-Length nor chunks, its body is whatever comes until the
+		 *         connection is closed
+		 */
+		boolean isDelimitedByClose() {
+			return parseHead() && !bodyless && !chunked && contentLength < 0;
+		}
+
+		/**
+		 * @return true if the complete response leaves the connection open for the next request
+		 */
+		boolean isReusable() {
+			return keepAlive && messageEnd == count;
+		}
+
+		String getBody() {
+			try {
+				if (headerEnd < 0 || bodyless) {
+					return "";
+				}
+				if (chunked) {
+					readChunks();
+					return dechunked.toString(CHARSET);
+				}
+				int length = count - headerEnd;
+				if (contentLength > -1 && contentLength < length) {
+					length = contentLength;
+				}
+				return new String(buf, headerEnd, length, CHARSET);
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		/**
+		 * @return true once the status line and headers are available
+		 */
+		private boolean parseHead() {
+			if (headerEnd > -1) {
+				return true;
+			}
+			for (int i = Math.max(scanned, 3); i < count; i++) {
+				if (buf[i] == '\n' && buf[i - 1] == '\r' && buf[i - 2] == '\n' && buf[i - 3] == '\r') {
+					headerEnd = i + 1;
+					break;
+				}
+			}
+			scanned = count;
+			if (headerEnd < 0) {
+				return false;
+			}
+
+			String[] lines;
+			try {
+				lines = new String(buf, 0, headerEnd, "ISO-8859-1").split("\r\n");
+			} catch (UnsupportedEncodingException e) {
+				throw new IllegalStateException(e);
+			}
+			String[] statusLine = lines[0].split(" ");
+			statusCode = statusLine.length > 1 ? Integer.parseInt(statusLine[1]) : -1;
+			bodyless = (statusCode >= 100 && statusCode < 200) || statusCode == HttpStatus.SC_NO_CONTENT
+					|| statusCode == HttpStatus.SC_NOT_MODIFIED;
+			// HTTP/1.1 connections persist unless the server says otherwise, HTTP/1.0 ones are closed
+			keepAlive = "HTTP/1.1".equals(statusLine[0]);
+
+			for (int i = 1; i < lines.length; i++) {
+				int colon = lines[i].indexOf(':');
+				if (colon < 0) {
+					continue;
+				}
+				String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+				String value = lines[i].substring(colon + 1).trim();
+				if ("content-length".equals(name)) {
+					contentLength = Integer.parseInt(value);
+				} else if ("transfer-encoding".equals(name) && value.toLowerCase(Locale.ENGLISH).contains("chunked")) {
+					chunked = true;
+					chunkPosition = headerEnd;
+					dechunked = new ByteArrayOutputStream(BUFFER_SIZE);
+				} else if ("connection".equals(name) && value.toLowerCase(Locale.ENGLISH).contains("close")) {
+					keepAlive = false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Decodes as many complete chunks as have arrived, then skips the trailers after the terminating chunk
+		 *
+		 * @return true once the terminating chunk and the trailers have been read
+		 */
+		private boolean readChunks() {
+			while (!lastChunk) {
+				int lineEnd = indexOfCRLF(chunkPosition);
+				if (lineEnd < 0) {
+					return false;
+				}
+				String sizeLine = new String(buf, chunkPosition, lineEnd - chunkPosition);
+				int extension = sizeLine.indexOf(';');
+				if (extension > -1) {
+					sizeLine = sizeLine.substring(0, extension);
+				}
+				int size = Integer.parseInt(sizeLine.trim(), 16);
+				if (size == 0) {
+					lastChunk = true;
+					chunkPosition = lineEnd + 2;
+					break;
+				}
+				int dataStart = lineEnd + 2;
+				if (count < dataStart + size + 2) {
+					return false;
+				}
+				dechunked.write(buf, dataStart, size);
+				chunkPosition = dataStart + size + 2;
+			}
+			while (messageEnd < 0) {
+				int lineEnd = indexOfCRLF(chunkPosition);
+				if (lineEnd < 0) {
+					return false;
+				}
+				if (lineEnd == chunkPosition) {
+					messageEnd = lineEnd + 2;
+				} else {
+					chunkPosition = lineEnd + 2;
+				}
+			}
+			return true;
+		}
+
+		private int indexOfCRLF(int from) {
+			for (int i = from; i < count - 1; i++) {
+				if (buf[i] == '\r' && buf[i + 1] == '\n') {
+					return i;
+				}
+			}
+			return -1;
+		}
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.face4j.facebook.http;
+
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookError;
+import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.util.Constants;
+import com.face4j.facebook.util.JSONToObjectTransformer;
+
+/**
+ * Wraps a caller so that every call first takes a permit from a {@link RateLimiter}, for the app and for the access
+ * token the call is made with. Throttling errors facebook returns lower the limiter's rates; throttled GETs, which are
+ * safe to repeat, are retried after a jittered delay up to {@link RateLimiter#getMaxRetries()} times. POSTs and
+ * DELETEs are never retried. <br>
+ *
+ * Fql and the old rest api send their errors in the body of a successful response. Those are recognised as well, and
+ * once the retries are used up the response is returned as it is so that the error is thrown as before when it is
+ * read.
+ */
+public class RateLimitedAPICaller implements StreamingAPICallerInterface {
+
+	private final APICallerInterface caller;
+	private final RateLimiter rateLimiter;
+
+	public RateLimitedAPICaller(APICallerInterface caller, RateLimiter rateLimiter) {
+		if (caller == null || rateLimiter == null) {
+			throw new IllegalArgumentException("caller and rateLimiter must not be null");
+		}
+		this.caller = caller;
+		this.rateLimiter = rateLimiter;
+	}
+
+	public APICallerInterface getCaller() {
+		return caller;
+	}
+
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
+	}
+
+	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String accessToken = getAccessToken(url, nameValuePairs);
+
+		for (int retry = 0;; retry++) {
+			rateLimiter.acquire(accessToken);
+			try {
+				String response = caller.getData(url, nameValuePairs);
+				FacebookError error = JSONToObjectTransformer.findError(response);
+				if (!RateLimiter.isThrottlingError(error)) {
+					rateLimiter.succeeded(accessToken);
+					return response;
+				}
+				rateLimiter.throttled(accessToken, error);
+				if (retry >= rateLimiter.getMaxRetries()) {
+					return response;
+				}
+			} catch (FacebookException e) {
+				if (!RateLimiter.isThrottlingError(e.getError())) {
+					throw e;
+				}
+				rateLimiter.throttled(accessToken, e.getError());
+				if (retry >= rateLimiter.getMaxRetries()) {
+					throw e;
+				}
+			}
+			rateLimiter.awaitRetry(retry);
+		}
+	}
+
+	/**
+	 * Retried like {@link #getData(String, NameValuePair[])}. A throttled response is an error from its first byte, so
+	 * the handler has not been given any data when the call is repeated.
+	 */
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException {
+		if (!(caller instanceof StreamingAPICallerInterface)) {
+			return handler.handle(new StringReader(getData(url, nameValuePairs)));
+		}
+
+		String accessToken = getAccessToken(url, nameValuePairs);
+
+		for (int retry = 0;; retry++) {
+			rateLimiter.acquire(accessToken);
+			try {
+				T result = ((StreamingAPICallerInterface) caller).getData(url, nameValuePairs, handler);
+				rateLimiter.succeeded(accessToken);
+				return result;
+			} catch (FacebookException e) {
+				if (!RateLimiter.isThrottlingError(e.getError())) {
+					throw e;
+				}
+				rateLimiter.throttled(accessToken, e.getError());
+				if (retry >= rateLimiter.getMaxRetries()) {
+					throw e;
+				}
+			}
+			rateLimiter.awaitRetry(retry);
+		}
+	}
+
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String accessToken = getAccessToken(url, nameValuePairs);
+		rateLimiter.acquire(accessToken);
+		try {
+			return checkResponse(accessToken, caller.postData(url, nameValuePairs));
+		} catch (FacebookException e) {
+			throw checkException(accessToken, e);
+		}
+	}
+
+	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String accessToken = getAccessToken(url, nameValuePairs);
+		rateLimiter.acquire(accessToken);
+		try {
+			return checkResponse(accessToken, caller.deleteData(url, nameValuePairs));
+		} catch (FacebookException e) {
+			throw checkException(accessToken, e);
+		}
+	}
+
+	private String checkResponse(String accessToken, String response) {
+		FacebookError error = JSONToObjectTransformer.findError(response);
+		if (RateLimiter.isThrottlingError(error)) {
+			rateLimiter.throttled(accessToken, error);
+		} else {
+			rateLimiter.succeeded(accessToken);
+		}
+		return response;
+	}
+
+	private FacebookException checkException(String accessToken, FacebookException e) {
+		if (RateLimiter.isThrottlingError(e.getError())) {
+			rateLimiter.throttled(accessToken, e.getError());
+		}
+		return e;
+	}
+
+	/**
+	 * The access token is passed as a parameter, or in the query string of the url when there are none
+	 */
+	static String getAccessToken(String url, NameValuePair[] nameValuePairs) {
+		if (nameValuePairs != null) {
+			for (NameValuePair nameValuePair : nameValuePairs) {
+				if (nameValuePair != null && Constants.PARAM_ACCESS_TOKEN.equals(nameValuePair.getName())) {
+					return nameValuePair.getValue();
+				}
+			}
+		}
+
+		int query = url.indexOf('?');
+		if (query >= 0) {
+			for (String param : url.substring(query + 1).split("&")) {
+				if (param.startsWith(Constants.PARAM_ACCESS_TOKEN + "=")) {
+					try {
+						return URLDecoder.decode(param.substring(Constants.PARAM_ACCESS_TOKEN.length() + 1), "UTF-8");
+					} catch (UnsupportedEncodingException e) {
+						return param.substring(Constants.PARAM_ACCESS_TOKEN.length() + 1);
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,379 @@
+package com.face4j.facebook.http;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.face4j.facebook.exception.FacebookError;
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Client side token bucket limiter for the calls of one app, with a bucket for the app as a whole and one per access
+ * token. A call waits until both buckets have a permit. <br>
+ *
+ * The rates adapt to facebook's throttling errors: on an app limit error (code 4) the app rate is halved, on a user or
+ * api limit error (17, 613) the rate of that access token is, and the bucket lets nothing through for a backoff delay
+ * that doubles with every throttling error in a row. Each successful call raises the rate again by a small step, up to
+ * the configured rate. This keeps the calls just under facebook's limits instead of being blocked for the whole limit
+ * window. <br>
+ *
+ * Used through {@link RateLimitedAPICaller}, which also retries throttled GETs after a jittered delay. Share one
+ * instance per app, see {@link com.face4j.facebook.factory.FacebookFactory#setRateLimiter(RateLimiter)}. This class is
+ * thread safe.
+ */
+public class RateLimiter {
+
+	/**
+	 * Application request limit reached
+	 */
+	public static final int APP_LIMIT_ERROR = 4;
+
+	/**
+	 * User request limit reached
+	 */
+	public static final int USER_LIMIT_ERROR = 17;
+
+	/**
+	 * Calls to this api have exceeded the rate limit
+	 */
+	public static final int API_LIMIT_ERROR = 613;
+
+	/**
+	 * Buckets of access tokens that haven't been used for this long are dropped
+	 */
+	private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+	private static final int CLEANUP_THRESHOLD = 1000;
+
+	private final double appRate;
+	private final double tokenRate;
+
+	private int burst = 10;
+	private int maxRetries = 3;
+	private long backoffMillis = 1000;
+	private long maxBackoffMillis = 60000;
+
+	private final Bucket appBucket;
+	private final ConcurrentMap<String, Bucket> tokenBuckets = new ConcurrentHashMap<String, Bucket>();
+
+	private final AtomicLong throttled = new AtomicLong();
+	private final AtomicLong retries = new AtomicLong();
+	private final AtomicLong waitedMillis = new AtomicLong();
+
+	private final Random random = new Random();
+
+	/**
+	 * @param appRate Calls per second the app makes at most, across all access tokens
+	 * @param tokenRate Calls per second made at most with any one access token
+	 */
+	public RateLimiter(double appRate, double tokenRate) {
+		if (appRate <= 0 || tokenRate <= 0) {
+			throw new IllegalArgumentException("The rates must be positive");
+		}
+		this.appRate = appRate;
+		this.tokenRate = tokenRate;
+		this.appBucket = new Bucket(appRate);
+	}
+
+	public double getAppRate() {
+		return appRate;
+	}
+
+	public double getTokenRate() {
+		return tokenRate;
+	}
+
+	public int getBurst() {
+		return burst;
+	}
+
+	/**
+	 * Calls a bucket that has been idle lets through without waiting. Default 10.
+	 *
+	 * @param burst
+	 */
+	public void setBurst(int burst) {
+		if (burst < 1) {
+			throw new IllegalArgumentException("Must be at least 1: " + burst);
+		}
+		this.burst = burst;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * How often a throttled GET is retried before the error is thrown. Default 3, 0 never retries.
+	 *
+	 * @param maxRetries
+	 */
+	public void setMaxRetries(int maxRetries) {
+		if (maxRetries < 0) {
+			throw new IllegalArgumentException("Must not be negative: " + maxRetries);
+		}
+		this.maxRetries = maxRetries;
+	}
+
+	public long getBackoffMillis() {
+		return backoffMillis;
+	}
+
+	/**
+	 * The backoff after the first throttling error, doubled for every further one in a row. Default 1 second.
+	 *
+	 * @param backoffMillis
+	 */
+	public void setBackoffMillis(long backoffMillis) {
+		if (backoffMillis < 0) {
+			throw new IllegalArgumentException("Must not be negative: " + backoffMillis);
+		}
+		this.backoffMillis = backoffMillis;
+	}
+
+	public long getMaxBackoffMillis() {
+		return maxBackoffMillis;
+	}
+
+	/**
+	 * Upper bound of the backoff. Default 60 seconds.
+	 *
+	 * @param maxBackoffMillis
+	 */
+	public void setMaxBackoffMillis(long maxBackoffMillis) {
+		if (maxBackoffMillis < 0) {
+			throw new IllegalArgumentException("Must not be negative: " + maxBackoffMillis);
+		}
+		this.maxBackoffMillis = maxBackoffMillis;
+	}
+
+	/**
+	 * @return Number of throttling errors facebook returned
+	 */
+	public long getThrottledCount() {
+		return throttled.get();
+	}
+
+	/**
+	 * @return Number of throttled GETs that were retried
+	 */
+	public long getRetryCount() {
+		return retries.get();
+	}
+
+	/**
+	 * @return Total time calls spent waiting for a permit
+	 */
+	public long getWaitedMillis() {
+		return waitedMillis.get();
+	}
+
+	/**
+	 * @return The app rate as adapted to the throttling errors so far, in calls per second
+	 */
+	public double getCurrentAppRate() {
+		return appBucket.getRate();
+	}
+
+	/**
+	 * @return The rate of the access token as adapted to the throttling errors so far, in calls per second
+	 */
+	public double getCurrentTokenRate(String accessToken) {
+		Bucket bucket = tokenBuckets.get(accessToken);
+		return (bucket == null) ? tokenRate : bucket.getRate();
+	}
+
+	/**
+	 * @return True for the errors facebook sends when a request limit has been reached
+	 */
+	public static boolean isThrottlingError(FacebookError error) {
+		if (error == null) {
+			return false;
+		}
+		int code = error.getFacebookErrorCode();
+		return code == APP_LIMIT_ERROR || code == USER_LIMIT_ERROR || code == API_LIMIT_ERROR;
+	}
+
+	/**
+	 * Waits until the app and the access token both have a permit
+	 *
+	 * @param accessToken May be null for calls made without one, they only take an app permit
+	 */
+	void acquire(String accessToken) throws FacebookException {
+		long now = System.nanoTime();
+		long waitNanos = appBucket.reserve(now);
+		if (accessToken != null) {
+			waitNanos = Math.max(waitNanos, getBucket(accessToken, now).reserve(now));
+		}
+		sleep(waitNanos);
+	}
+
+	/**
+	 * Raises the rates again after a call that wasn't throttled
+	 */
+	void succeeded(String accessToken) {
+		appBucket.increase();
+		if (accessToken != null) {
+			Bucket bucket = tokenBuckets.get(accessToken);
+			if (bucket != null) {
+				bucket.increase();
+			}
+		}
+	}
+
+	/**
+	 * Lowers the rate of the bucket the error applies to and holds it back for the backoff delay
+	 */
+	void throttled(String accessToken, FacebookError error) {
+		throttled.incrementAndGet();
+		long now = System.nanoTime();
+		if (error.getFacebookErrorCode() == APP_LIMIT_ERROR || accessToken == null) {
+			appBucket.decrease(now);
+		} else {
+			getBucket(accessToken, now).decrease(now);
+		}
+	}
+
+	/**
+	 * Waits a random time between 0 and the backoff of the given retry (full jitter), so that the threads throttled at
+	 * the same time don't all retry at the same time
+	 *
+	 * @param retry 0 for the first retry
+	 */
+	void awaitRetry(int retry) throws FacebookException {
+		retries.incrementAndGet();
+		long delay;
+		synchronized (random) {
+			delay = (long) (random.nextDouble() * getBackoff(retry + 1));
+		}
+		sleep(TimeUnit.MILLISECONDS.toNanos(delay));
+	}
+
+	/**
+	 * @param throttles Throttling errors in a row, at least 1
+	 */
+	private long getBackoff(int throttles) {
+		long backoff = backoffMillis << Math.min(throttles - 1, 30);
+		return (backoff < 0 || backoff > maxBackoffMillis) ? maxBackoffMillis : backoff;
+	}
+
+	private Bucket getBucket(String accessToken, long now) {
+		Bucket bucket = tokenBuckets.get(accessToken);
+		if (bucket == null) {
+			if (tokenBuckets.size() >= CLEANUP_THRESHOLD) {
+				removeIdleBuckets(now);
+			}
+			Bucket created = new Bucket(tokenRate);
+			bucket = tokenBuckets.putIfAbsent(accessToken, created);
+			if (bucket == null) {
+				bucket = created;
+			}
+		}
+		return bucket;
+	}
+
+	private void removeIdleBuckets(long now) {
+		for (Iterator<Bucket> iterator = tokenBuckets.values().iterator(); iterator.hasNext();) {
+			if (iterator.next().isIdle(now)) {
+				iterator.remove();
+			}
+		}
+	}
+
+	private void sleep(long nanos) throws FacebookException {
+		if (nanos <= 0) {
+			return;
+		}
+		waitedMillis.addAndGet(TimeUnit.NANOSECONDS.toMillis(nanos));
+		long start = System.nanoTime();
+		try {
+			TimeUnit.NANOSECONDS.sleep(nanos);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FacebookException("Interrupted while waiting for a permit to call facebook!", e);
+		} finally {
+			LimiterWaits.add(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Token bucket whose permits may go negative: a call takes its permit right away and waits for as long as it takes
+	 * the bucket to refill to zero, which spaces the waiting calls 1/rate apart.
+	 */
+	private class Bucket {
+
+		private final double maxRate;
+
+		private double rate;
+		private double permits;
+		private long lastRefill;
+		private long lastUsed;
+		private long blockedUntil;
+		private int throttles;
+
+		Bucket(double maxRate) {
+			this.maxRate = maxRate;
+			this.rate = maxRate;
+			this.permits = burst;
+			this.lastRefill = System.nanoTime();
+			this.lastUsed = lastRefill;
+			this.blockedUntil = lastRefill;
+		}
+
+		/**
+		 * @return Nanos to wait before the permit may be used
+		 */
+		synchronized long reserve(long now) {
+			lastUsed = now;
+			refill(now);
+			long start = Math.max(now, blockedUntil);
+			if (start > now) {
+				// blocked by a backoff, the permits start refilling when it ends
+				permits = Math.min(permits, 0);
+				lastRefill = start;
+			}
+			permits -= 1;
+			long wait = start - now;
+			if (permits < 0) {
+				wait += (long) (-permits / rate * TimeUnit.SECONDS.toNanos(1));
+			}
+			return wait;
+		}
+
+		synchronized void increase() {
+			throttles = 0;
+			rate = Math.min(maxRate, rate + maxRate / 100);
+		}
+
+		synchronized void decrease(long now) {
+			if (now < blockedUntil) {
+				// a call that was in flight when the bucket was throttled, it's the same throttling event
+				return;
+			}
+			refill(now);
+			throttles++;
+			rate = Math.max(maxRate / 100, rate / 2);
+			permits = Math.min(permits, 0);
+			blockedUntil = Math.max(blockedUntil, now + TimeUnit.MILLISECONDS.toNanos(getBackoff(throttles)));
+		}
+
+		synchronized double getRate() {
+			return rate;
+		}
+
+		synchronized boolean isIdle(long now) {
+			return now - lastUsed > IDLE_BUCKET_NANOS && now > blockedUntil;
+		}
+
+		private void refill(long now) {
+			if (now > lastRefill) {
+				permits = Math.min(burst, permits + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+				lastRefill = now;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.face4j.facebook.http;
+
+import java.io.Reader;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Consumes a successful response straight off the connection. The reader is only valid for the duration of
+ * {@link #handle(Reader)}, the connection is released as soon as it returns.
+ * 
+ * @param <T>
+ */
+public interface ResponseHandler<T> {
+
+	public T handle(Reader reader) throws FacebookException;
+
+}
@@ -0,0 +1,137 @@
+package com.face4j.facebook.http;
+
+import java.io.StringReader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.util.Parameters;
+
+/**
+ * Wraps a caller so that identical GETs made concurrently share a single request. The first thread to ask for a url
+ * makes the call, threads asking for the same url (same parameters, so the same access token) while it is in flight
+ * wait for it and get the same response, or the same FacebookException. A GET made after the call completed goes to
+ * facebook again, nothing is cached. <br>
+ *
+ * Streaming GETs are coalesced too: the body is read into a String once and every thread runs its own handler over
+ * it, so they give up streaming the body off the connection. POST and DELETE requests are passed straight to the
+ * wrapped caller. <br>
+ *
+ * Opt in with {@link com.face4j.facebook.factory.FacebookFactory#setSingleFlightGets(boolean)} or by passing an
+ * instance to {@link com.face4j.facebook.Facebook#Facebook(com.face4j.facebook.OAuthAccessToken, APICallerInterface)}.
+ * This class is thread safe.
+ */
+public class SingleFlightAPICaller implements StreamingAPICallerInterface {
+
+	private final APICallerInterface caller;
+
+	private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	public SingleFlightAPICaller(APICallerInterface caller) {
+		if (caller == null) {
+			throw new IllegalArgumentException("caller must not be null");
+		}
+		this.caller = caller;
+	}
+
+	public APICallerInterface getCaller() {
+		return caller;
+	}
+
+	/**
+	 * @return Number of GETs made through this caller
+	 */
+	public long getRequestCount() {
+		return requests.get();
+	}
+
+	/**
+	 * @return Number of GETs that were answered by a request another thread already had in flight
+	 */
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		requests.incrementAndGet();
+		String key = getKey(url, nameValuePairs);
+
+		Flight flight = new Flight();
+		Flight inFlight = flights.putIfAbsent(key, flight);
+		if (inFlight != null) {
+			coalesced.incrementAndGet();
+			return inFlight.await();
+		}
+
+		boolean completed = false;
+		try {
+			flight.response = caller.getData(url, nameValuePairs);
+			completed = true;
+			return flight.response;
+		} catch (FacebookException e) {
+			flight.exception = e;
+			completed = true;
+			throw e;
+		} catch (RuntimeException e) {
+			flight.exception = new FacebookException("Exception while calling facebook!", e);
+			completed = true;
+			throw e;
+		} finally {
+			if (!completed) {
+				flight.exception = new FacebookException("Exception while calling facebook!", null);
+			}
+			// later GETs must make a fresh request, so the flight goes before the waiting threads are let go
+			flights.remove(key, flight);
+			flight.done.countDown();
+		}
+	}
+
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException {
+		// a body streamed into one thread's handler can't be shared, the flight keeps it as a String
+		return handler.handle(new StringReader(getData(url, nameValuePairs)));
+	}
+
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return caller.postData(url, nameValuePairs);
+	}
+
+	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		return caller.deleteData(url, nameValuePairs);
+	}
+
+	private static String getKey(String url, NameValuePair[] nameValuePairs) {
+		return url + '\n' + Parameters.encode(nameValuePairs);
+	}
+
+	/**
+	 * One GET in flight. The fields are written before the latch is counted down and only read after it.
+	 */
+	private static class Flight {
+
+		private final CountDownLatch done = new CountDownLatch(1);
+
+		private String response;
+		private FacebookException exception;
+
+		String await() throws FacebookException {
+			try {
+				done.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new FacebookException("Interrupted while waiting for facebook!", e);
+			}
+			if (exception != null) {
+				throw exception;
+			}
+			return response;
+		}
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.face4j.facebook.http;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+
+/**
+ * Implemented by the callers that can hand the response body to a {@link ResponseHandler} as it is read, without
+ * first copying it into a String. Error responses are still thrown as a FacebookException.
+ */
+public interface StreamingAPICallerInterface extends APICallerInterface {
+
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException;
+
+}
@@ -0,0 +1,65 @@
+package com.face4j.facebook.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Response body byte counts of a caller, as received over the wire (compressed) and after decompression. For responses
+ * that weren't compressed both counts grow by the same amount. Thread safe, the counts only ever grow.
+ */
+public class TransferStats {
+
+	private final AtomicLong responses = new AtomicLong();
+	private final AtomicLong compressedResponses = new AtomicLong();
+	private final AtomicLong compressedBytes = new AtomicLong();
+	private final AtomicLong uncompressedBytes = new AtomicLong();
+
+	void addResponse(boolean compressed) {
+		responses.incrementAndGet();
+		if (compressed) {
+			compressedResponses.incrementAndGet();
+		}
+	}
+
+	void addCompressedBytes(long bytes) {
+		compressedBytes.addAndGet(bytes);
+	}
+
+	void addUncompressedBytes(long bytes) {
+		uncompressedBytes.addAndGet(bytes);
+	}
+
+	/**
+	 * @return Number of response bodies read
+	 */
+	public long getResponses() {
+		return responses.get();
+	}
+
+	/**
+	 * @return Number of response bodies facebook sent gzip or deflate encoded
+	 */
+	public long getCompressedResponses() {
+		return compressedResponses.get();
+	}
+
+	/**
+	 * @return Body bytes received over the wire
+	 */
+	public long getCompressedBytes() {
+		return compressedBytes.get();
+	}
+
+	/**
+	 * @return Body bytes after decompression
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes.get();
+	}
+
+	@Override
+	public String toString() {
+		return "responses=" + getResponses() + ", compressedResponses=" + getCompressedResponses() + ", compressedBytes="
+				+ getCompressedBytes() + ", uncompressedBytes=" + getUncompressedBytes();
+	}
+
+}
@@ -0,0 +1,288 @@
+package com.face4j.facebook.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Settings of the http transport: timeouts, connection pool sizes, socket options and proxy. Pass one to
+ * {@link com.face4j.facebook.factory.FacebookFactory} or {@link com.face4j.facebook.Facebook} when creating them, the
+ * settings are copied at that point so later changes have no effect on them. <br>
+ *
+ * All times are in milliseconds, 0 means no limit. The proxy settings default to those in face4j.properties.<br>
+ *
+ * Not every client type supports every setting: the url fetch service only has a single deadline (connect plus read
+ * timeout) and the async NIO caller only honours the timeouts, keep-alive and graphMaxConnections (as the number of
+ * idle connections it keeps per host).
+ */
+public class TransportConfig implements Serializable {
+
+	private static final long serialVersionUID = -2632620813302434405L;
+
+	private int connectTimeout = 10000;
+	private int readTimeout = 30000;
+	private int poolAcquireTimeout = 10000;
+
+	private int graphMaxConnections = APICaller.DEFAULT_MAX_CONNECTIONS;
+	private int fqlMaxConnections = APICaller.DEFAULT_MAX_CONNECTIONS;
+
+	private int sendBufferSize = -1;
+	private int receiveBufferSize = -1;
+	private boolean tcpNoDelay = true;
+	private boolean keepAlive = true;
+	private int idleConnectionTimeout = 60000;
+	private boolean compression = true;
+
+	private String proxyHost;
+	private int proxyPort = -1;
+	private String proxyUsername;
+	private String proxyPassword;
+
+	public TransportConfig() {
+		Properties properties = ProxyProperties.properties;
+		proxyHost = properties.getProperty("client.proxy.host");
+		proxyUsername = properties.getProperty("client.proxy.username");
+		proxyPassword = properties.getProperty("client.proxy.password");
+		if (properties.getProperty("client.proxy.port") != null) {
+			proxyPort = Integer.parseInt(properties.getProperty("client.proxy.port"));
+		}
+	}
+
+	/**
+	 * Copies all the settings of config
+	 *
+	 * @param config
+	 */
+	public TransportConfig(TransportConfig config) {
+		connectTimeout = config.connectTimeout;
+		readTimeout = config.readTimeout;
+		poolAcquireTimeout = config.poolAcquireTimeout;
+		graphMaxConnections = config.graphMaxConnections;
+		fqlMaxConnections = config.fqlMaxConnections;
+		sendBufferSize = config.sendBufferSize;
+		receiveBufferSize = config.receiveBufferSize;
+		tcpNoDelay = config.tcpNoDelay;
+		keepAlive = config.keepAlive;
+		idleConnectionTimeout = config.idleConnectionTimeout;
+		compression = config.compression;
+		proxyHost = config.proxyHost;
+		proxyPort = config.proxyPort;
+		proxyUsername = config.proxyUsername;
+		proxyPassword = config.proxyPassword;
+	}
+
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Time allowed to open a connection. Default 10 seconds.
+	 *
+	 * @param connectTimeout
+	 */
+	public void setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = checkNotNegative(connectTimeout);
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Time allowed between two packets of the response. Default 30 seconds.
+	 *
+	 * @param readTimeout
+	 */
+	public void setReadTimeout(int readTimeout) {
+		this.readTimeout = checkNotNegative(readTimeout);
+	}
+
+	public int getPoolAcquireTimeout() {
+		return poolAcquireTimeout;
+	}
+
+	/**
+	 * Time a request waits for a free connection when the pool is exhausted. Default 10 seconds.
+	 *
+	 * @param poolAcquireTimeout
+	 */
+	public void setPoolAcquireTimeout(int poolAcquireTimeout) {
+		this.poolAcquireTimeout = checkNotNegative(poolAcquireTimeout);
+	}
+
+	public int getGraphMaxConnections() {
+		return graphMaxConnections;
+	}
+
+	/**
+	 * Size of the connection pool to graph.facebook.com (and of the pool used for other hosts). Default 15.
+	 *
+	 * @param graphMaxConnections
+	 */
+	public void setGraphMaxConnections(int graphMaxConnections) {
+		this.graphMaxConnections = checkPositive(graphMaxConnections);
+	}
+
+	public int getFqlMaxConnections() {
+		return fqlMaxConnections;
+	}
+
+	/**
+	 * Size of the connection pool to api.facebook.com, which the fql methods use. Default 15.
+	 *
+	 * @param fqlMaxConnections
+	 */
+	public void setFqlMaxConnections(int fqlMaxConnections) {
+		this.fqlMaxConnections = checkPositive(fqlMaxConnections);
+	}
+
+	public int getSendBufferSize() {
+		return sendBufferSize;
+	}
+
+	/**
+	 * SO_SNDBUF in bytes, -1 (the default) leaves the system default
+	 *
+	 * @param sendBufferSize
+	 */
+	public void setSendBufferSize(int sendBufferSize) {
+		this.sendBufferSize = sendBufferSize;
+	}
+
+	public int getReceiveBufferSize() {
+		return receiveBufferSize;
+	}
+
+	/**
+	 * SO_RCVBUF in bytes, -1 (the default) leaves the system default
+	 *
+	 * @param receiveBufferSize
+	 */
+	public void setReceiveBufferSize(int receiveBufferSize) {
+		this.receiveBufferSize = receiveBufferSize;
+	}
+
+	public boolean isTcpNoDelay() {
+		return tcpNoDelay;
+	}
+
+	/**
+	 * TCP_NODELAY, true by default
+	 *
+	 * @param tcpNoDelay
+	 */
+	public void setTcpNoDelay(boolean tcpNoDelay) {
+		this.tcpNoDelay = tcpNoDelay;
+	}
+
+	public boolean isKeepAlive() {
+		return keepAlive;
+	}
+
+	/**
+	 * Reuse connections for several requests (http keep-alive). true by default, false closes every connection after
+	 * its response.
+	 *
+	 * @param keepAlive
+	 */
+	public void setKeepAlive(boolean keepAlive) {
+		this.keepAlive = keepAlive;
+	}
+
+	public int getIdleConnectionTimeout() {
+		return idleConnectionTimeout;
+	}
+
+	/**
+	 * Pooled connections idle for longer than this are closed. Default 60 seconds, 0 keeps them until the server closes
+	 * them.
+	 *
+	 * @param idleConnectionTimeout
+	 */
+	public void setIdleConnectionTimeout(int idleConnectionTimeout) {
+		this.idleConnectionTimeout = checkNotNegative(idleConnectionTimeout);
+	}
+
+	public boolean isCompression() {
+		return compression;
+	}
+
+	/**
+	 * Ask for gzip/deflate compressed responses, which are decompressed while they are read. true by default.
+	 *
+	 * @param compression
+	 */
+	public void setCompression(boolean compression) {
+		this.compression = compression;
+	}
+
+	public String getProxyHost() {
+		return proxyHost;
+	}
+
+	public void setProxyHost(String proxyHost) {
+		this.proxyHost = proxyHost;
+	}
+
+	public int getProxyPort() {
+		return proxyPort;
+	}
+
+	public void setProxyPort(int proxyPort) {
+		this.proxyPort = proxyPort;
+	}
+
+	public String getProxyUsername() {
+		return proxyUsername;
+	}
+
+	public void setProxyUsername(String proxyUsername) {
+		this.proxyUsername = proxyUsername;
+	}
+
+	public String getProxyPassword() {
+		return proxyPassword;
+	}
+
+	public void setProxyPassword(String proxyPassword) {
+		this.proxyPassword = proxyPassword;
+	}
+
+	private static int checkNotNegative(int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Must not be negative: " + value);
+		}
+		return value;
+	}
+
+	private static int checkPositive(int value) {
+		if (value < 1) {
+			throw new IllegalArgumentException("Must be at least 1: " + value);
+		}
+		return value;
+	}
+
+	/**
+	 * Proxy settings from face4j.properties, read once when first needed
+	 */
+	private static class ProxyProperties {
+
+		static final Properties properties = new Properties();
+
+		static {
+			try {
+				InputStream inputStream = ClassLoader.getSystemResourceAsStream("face4j.properties");
+				if (inputStream != null) {
+					properties.load(inputStream);
+					inputStream.close();
+				}
+			} catch (IOException e) {
+				Logger.getLogger(TransportConfig.class.getName()).log(Level.WARNING, "Could not read face4j.properties", e);
+			}
+		}
+	}
+
+}
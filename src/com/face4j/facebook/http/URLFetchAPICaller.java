@@ -1,129 +1,208 @@
 package com.face4j.facebook.http;
 
 import java.io.*;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLEncoder;
 
-import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpStatus;
 import org.apache.commons.httpclient.NameValuePair;
 
 import com.face4j.facebook.exception.FacebookException;
 import com.face4j.facebook.util.JSONToObjectTransformer;
+import com.face4j.facebook.util.Parameters;
 import com.google.appengine.api.urlfetch.*;
 
-public class URLFetchAPICaller implements APICallerInterface {
+public class URLFetchAPICaller implements StreamingAPICallerInterface {
+
+	private final TransportConfig config;
+
+	private final URLFetchService fetchService;
+
+	private final TransferStats transferStats = new TransferStats();
+
+	public URLFetchAPICaller() {
+		this(new TransportConfig());
+	}
+
+	/**
+	 * Only the timeouts of the config apply, the url fetch service manages its own connections
+	 * 
+	 * @param config Copied, later changes to it have no effect
+	 */
+	public URLFetchAPICaller(TransportConfig config) {
+		this(null, config);
+	}
+
+	/**
+	 * Fetches through the given service instead of the one of the app engine environment, e.g. a stub in tests
+	 * 
+	 * @param fetchService null for the app engine one
+	 * @param config Copied, later changes to it have no effect
+	 */
+	public URLFetchAPICaller(URLFetchService fetchService, TransportConfig config) {
+		this.fetchService = fetchService;
+		this.config = new TransportConfig(config);
+	}
+
+	URLFetchService getFetchService() {
+		return (fetchService == null) ? URLFetchServiceFactory.getURLFetchService() : fetchService;
+	}
+
+	/**
+	 * Response body bytes read by this caller, before and after decompression
+	 */
+	public TransferStats getTransferStats() {
+		return transferStats;
+	}
+
+	/**
+	 * The url fetch service has a single deadline for the whole fetch
+	 */
+	private FetchOptions getFetchOptions() {
+		int deadline = config.getConnectTimeout() + config.getReadTimeout();
+		return (deadline > 0) ? FetchOptions.Builder.withDeadline(deadline / 1000.0) : FetchOptions.Builder.withDefaults();
+	}
 
 	public String getData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
 
-		URLFetchService fetchService = URLFetchServiceFactory.getURLFetchService();
-		URL fetchURL = null;
+		HTTPResponse response = fetch(url, nameValuePairs);
 
-		HTTPResponse response = null;
-		String responseString = null;
-		String constructedParams = null;
+		// if response string contains accessToken=xxx remove it!
+		// responseString = Util.replaceAccessToken(responseString, nameValuePairs);
 
+		return new String(getContent(response));
+	}
+
+	/**
+	 * Same as {@link #getData(String, NameValuePair[])} but the handler reads the fetched bytes directly instead of a
+	 * String copy of them
+	 */
+	public <T> T getData(String url, NameValuePair[] nameValuePairs, ResponseHandler<T> handler) throws FacebookException {
+
+		HTTPResponse response = fetch(url, nameValuePairs);
+
+		try {
+			InputStream content = ContentEncoding.decode(new ByteArrayInputStream(getRawContent(response)),
+					getContentEncoding(response), transferStats);
+			return handler.handle(new InputStreamReader(content, "UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new FacebookException("Unsupported encoding while reading facebook response!", e);
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while reading facebook response!", e);
+		}
+	}
+
+	/**
+	 * Adds the per request headers
+	 */
+	private HTTPRequest prepare(HTTPRequest request) {
+		if (config.isCompression()) {
+			request.setHeader(new HTTPHeader("Accept-Encoding", ContentEncoding.ACCEPT_ENCODING));
+		}
+		return request;
+	}
+
+	/**
+	 * The response body, decompressed if facebook sent it gzip or deflate encoded. The fetch service may already have
+	 * decompressed it, in which case the Content-Encoding header is gone and the bytes are returned as they are.
+	 */
+	private byte[] getContent(HTTPResponse response) throws FacebookException {
 		try {
+			return ContentEncoding.decode(getRawContent(response), getContentEncoding(response), transferStats);
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while reading facebook response!", e);
+		}
+	}
 
-			if (nameValuePairs != null) {
-				constructedParams = constructParams(nameValuePairs);
+	private static byte[] getRawContent(HTTPResponse response) {
+		byte[] content = response.getContent();
+		return (content == null) ? new byte[0] : content;
+	}
 
-				if (url.contains("?")) {
-					url = url.concat("&" + constructedParams);
-				} else {
-					url = url.concat("?" + constructedParams);
+	private static String getContentEncoding(HTTPResponse response) {
+		if (response.getHeaders() != null) {
+			for (HTTPHeader header : response.getHeaders()) {
+				if ("Content-Encoding".equalsIgnoreCase(header.getName())) {
+					return header.getValue();
 				}
 			}
+		}
+		return null;
+	}
 
-			fetchURL = new URL(url);
-			response = fetchService.fetch(fetchURL);
-
-			int statusCode = response.getResponseCode();
-			if (statusCode != HttpStatus.SC_OK) {
-				// FacebookError error = new FacebookError(statusCode,
-				// "I guess you are not permitted to access this url. HTTP status code:"+statusCode, null);
-				responseString = new String(response.getContent());
-				throw new FacebookException(JSONToObjectTransformer.getError(responseString, statusCode));
-			}
-			responseString = new String(response.getContent());
-		} catch (HttpException e) {
-			throw new FacebookException("Http Exception while calling facebook!", e);
+	/**
+	 * GETs the url and throws the facebook error if the status is anything other than 200
+	 */
+	private HTTPResponse fetch(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		try {
+			HTTPResponse response = getFetchService().fetch(newRequest(HTTPMethod.GET, url, nameValuePairs));
+			checkStatus(response);
+			return response;
 		} catch (IOException e) {
 			throw new FacebookException("IO Exception while calling facebook!", e);
 		}
-
-		// if response string contains accessToken=xxx remove it!
-		// responseString = Util.replaceAccessToken(responseString, nameValuePairs);
-
-		return responseString;
 	}
 
 	/**
-	 * @param url
-	 * @param nameValuePairs
-	 * @return
-	 * @throws FacebookException
+	 * Builds the request for the url fetch service. The parameters of a POST go in its body, those of the other
+	 * methods in the query string.
 	 */
-	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+	HTTPRequest newRequest(HTTPMethod method, String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		String constructedParams = constructParams(nameValuePairs);
+
+		if (method != HTTPMethod.POST && constructedParams != null) {
+			url = url.concat((url.contains("?") ? "&" : "?") + constructedParams);
+		}
 
-		String content = null;
-		String constructedParams = null;
-		int statusCode = 0;
-		HttpURLConnection connection = null;
+		HTTPRequest request;
 		try {
-			URL posturl = new URL(url);
-			connection = (HttpURLConnection) posturl.openConnection();
-			connection.setDoOutput(true);
-			connection.setRequestMethod("POST");
-			// connection.setConnectTimeout(10000);
-			// connection.setReadTimeout(10000);
-
-			OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream());
-
-			constructedParams = constructParams(nameValuePairs);
-
-			writer.write(constructedParams);
-			writer.close();
-
-			statusCode = connection.getResponseCode();
-			if (statusCode != HttpURLConnection.HTTP_OK) {
-				// FacebookError error = new FacebookError(statusCode,
-				// "I guess you are not permitted to access this url. HTTP status code:"+statusCode, null);
-				content = getResponse(connection);
-				throw new FacebookException(JSONToObjectTransformer.getError(content, statusCode));
-			} else {
-				content = getResponse(connection);
-			}
+			request = prepare(new HTTPRequest(new URL(url), method, getFetchOptions()));
 		} catch (MalformedURLException e) {
 			throw new FacebookException("Malformed URL Exception while calling facebook!", e);
-		} catch (IOException e) {
-			throw new FacebookException("IOException while calling facebook!", e);
-		} finally {
-			if (connection != null) {
-				connection.disconnect();
+		}
+
+		if (method == HTTPMethod.POST) {
+			request.setHeader(new HTTPHeader("Content-Type", "application/x-www-form-urlencoded"));
+			try {
+				request.setPayload((constructedParams == null ? "" : constructedParams).getBytes("UTF-8"));
+			} catch (UnsupportedEncodingException e) {
+				throw new FacebookException("Unsupported encoding while calling facebook!", e);
 			}
 		}
+		return request;
+	}
 
-		return content;
+	/**
+	 * The response body as a String, or the facebook error if the status is anything other than 200
+	 */
+	String read(HTTPResponse response) throws FacebookException {
+		checkStatus(response);
+		return new String(getContent(response));
+	}
 
+	private void checkStatus(HTTPResponse response) throws FacebookException {
+		int statusCode = response.getResponseCode();
+		if (statusCode != HttpStatus.SC_OK) {
+			// FacebookError error = new FacebookError(statusCode,
+			// "I guess you are not permitted to access this url. HTTP status code:"+statusCode, null);
+			throw new FacebookException(JSONToObjectTransformer.getError(new String(getContent(response)), statusCode));
+		}
 	}
 
-	private String getResponse(HttpURLConnection connection) throws IOException {
-		String content;
-		// Get Response
-		InputStream is = connection.getInputStream();
-		BufferedReader rd = new BufferedReader(new InputStreamReader(is));
-		String line;
-		StringBuilder response = new StringBuilder();
-		while ((line = rd.readLine()) != null) {
-			response.append(line);
-			response.append('\r');
+	/**
+	 * POSTs the parameters form encoded through the url fetch service, like the other methods
+	 * 
+	 * @param url
+	 * @param nameValuePairs
+	 * @return
+	 * @throws FacebookException
+	 */
+	public String postData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
+		try {
+			return read(getFetchService().fetch(newRequest(HTTPMethod.POST, url, nameValuePairs)));
+		} catch (IOException e) {
+			throw new FacebookException("IO Exception while calling facebook!", e);
 		}
-		rd.close();
-		content = response.toString();
-		return content;
 	}
 
 	/*
@@ -167,66 +246,16 @@ public class URLFetchAPICaller implements APICallerInterface {
 	 */
 
 	public String deleteData(String url, NameValuePair[] nameValuePairs) throws FacebookException {
-		String content = null;
-		String constructedParams = null;
-		int statusCode = 0;
-
-		URLFetchService fetchService = URLFetchServiceFactory.getURLFetchService();
-		URL posturl = null;
-		constructedParams = constructParams(nameValuePairs);
-
-		try {
-			posturl = new URL(url + "?" + constructedParams);
-		} catch (MalformedURLException e) {
-		}
-
 		try {
-			HTTPResponse response = fetchService.fetch(new HTTPRequest(posturl, HTTPMethod.DELETE));
-
-			statusCode = response.getResponseCode();
-
-			if (statusCode != HttpURLConnection.HTTP_OK) {
-				content = new String(response.getContent());
-				throw new FacebookException(JSONToObjectTransformer.getError(content, statusCode));
-			} else {
-				content = new String(response.getContent());
-			}
-
+			return read(getFetchService().fetch(newRequest(HTTPMethod.DELETE, url, nameValuePairs)));
 		} catch (IOException e) {
+			throw new FacebookException("IO Exception while calling facebook!", e);
 		}
-
-		return content;
 	}
 
 	private String constructParams(NameValuePair[] nameValuePairs) {
-
-		StringBuilder builder = null;
-		String constructedParams = null;
-
-		for (NameValuePair nameValuePair : nameValuePairs) {
-			if (nameValuePair != null && nameValuePair.getName() != null && nameValuePair.getValue() != null) {
-				if (builder != null) {
-					try {
-						builder.append("&" + nameValuePair.getName() + "=" + URLEncoder.encode(nameValuePair.getValue(), "UTF-8"));
-					} catch (UnsupportedEncodingException e) {
-						// TODO: Catch error
-					}
-				} else {
-					builder = new StringBuilder();
-					try {
-						builder.append(nameValuePair.getName() + "=" + URLEncoder.encode(nameValuePair.getValue(), "UTF-8"));
-					} catch (UnsupportedEncodingException e) {
-						// TODO: Catch error
-					}
-				}
-			}
-		}
-
-		if (builder != null) {
-			constructedParams = builder.toString();
-		}
-
-		return constructedParams;
+		String params = Parameters.encode(nameValuePairs);
+		return (params.length() == 0) ? null : params;
 	}
 
 }
\ No newline at end of file
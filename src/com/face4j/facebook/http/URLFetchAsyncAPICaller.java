@@ -0,0 +1,172 @@
+package com.face4j.facebook.http;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+import com.face4j.facebook.exception.FacebookException;
+import com.google.appengine.api.urlfetch.HTTPMethod;
+import com.google.appengine.api.urlfetch.HTTPRequest;
+import com.google.appengine.api.urlfetch.HTTPResponse;
+import com.google.appengine.api.urlfetch.URLFetchService;
+
+/**
+ * Future based variant of {@link URLFetchAPICaller} on top of {@link URLFetchService#fetchAsync(HTTPRequest)}. The
+ * requests are sent right away and run in parallel without any threads of the app, so a request handler can make
+ * several graph calls in the time of the slowest one instead of the sum of them. <br>
+ *
+ * App engine limits the number of async fetches in flight per request handler and every fetch must be done before the
+ * handler's deadline, get the futures before returning from the handler.
+ */
+public class URLFetchAsyncAPICaller implements AsyncAPICallerInterface {
+
+	private final URLFetchAPICaller caller;
+
+	public URLFetchAsyncAPICaller() {
+		this(new TransportConfig());
+	}
+
+	/**
+	 * @param config Copied, later changes to it have no effect
+	 */
+	public URLFetchAsyncAPICaller(TransportConfig config) {
+		this(null, config);
+	}
+
+	/**
+	 * @param fetchService null for the app engine one, a stub in tests
+	 * @param config Copied, later changes to it have no effect
+	 */
+	public URLFetchAsyncAPICaller(URLFetchService fetchService, TransportConfig config) {
+		this.caller = new URLFetchAPICaller(fetchService, config);
+	}
+
+	/**
+	 * Response body bytes read by this caller, before and after decompression
+	 */
+	public TransferStats getTransferStats() {
+		return caller.getTransferStats();
+	}
+
+	public Future<String> getData(String url, NameValuePair[] nameValuePairs) {
+		return fetchAsync(HTTPMethod.GET, url, nameValuePairs);
+	}
+
+	public Future<String> postData(String url, NameValuePair[] nameValuePairs) {
+		return fetchAsync(HTTPMethod.POST, url, nameValuePairs);
+	}
+
+	public Future<String> deleteData(String url, NameValuePair[] nameValuePairs) {
+		return fetchAsync(HTTPMethod.DELETE, url, nameValuePairs);
+	}
+
+	/**
+	 * GETs all the urls in parallel, e.g. the connections of several pages
+	 *
+	 * @param urls
+	 * @param nameValuePairs Sent with every url, typically the access token
+	 * @return One future per url, in the order of the urls. Each one fails on its own if its call fails.
+	 */
+	public List<Future<String>> getData(List<String> urls, NameValuePair[] nameValuePairs) {
+		List<Future<String>> futures = new ArrayList<Future<String>>(urls.size());
+		for (String url : urls) {
+			futures.add(getData(url, nameValuePairs));
+		}
+		return futures;
+	}
+
+	private Future<String> fetchAsync(HTTPMethod method, String url, NameValuePair[] nameValuePairs) {
+		HTTPRequest request;
+		try {
+			request = caller.newRequest(method, url, nameValuePairs);
+		} catch (FacebookException e) {
+			APIResponseFuture future = new APIResponseFuture();
+			future.fail(e);
+			return future;
+		}
+		return new ResponseFuture(caller.getFetchService().fetchAsync(request));
+	}
+
+	/**
+	 * The fetch failed without a response, e.g. the deadline was exceeded
+	 */
+	private static ExecutionException toFacebookException(ExecutionException e) {
+		Throwable cause = e.getCause();
+		if (cause instanceof FacebookException) {
+			return e;
+		}
+		String message = (cause instanceof IOException) ? "IO Exception while calling facebook!"
+				: "Exception while calling facebook!";
+		return new ExecutionException(new FacebookException(message, (cause instanceof Exception) ? (Exception) cause : e));
+	}
+
+	/**
+	 * Reads the response of the fetch the same way the blocking caller does, once, when it is first asked for
+	 */
+	private class ResponseFuture implements Future<String> {
+
+		private final Future<HTTPResponse> fetch;
+
+		private boolean read;
+		private String response;
+		private FacebookException exception;
+
+		ResponseFuture(Future<HTTPResponse> fetch) {
+			this.fetch = fetch;
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			return fetch.cancel(mayInterruptIfRunning);
+		}
+
+		public boolean isCancelled() {
+			return fetch.isCancelled();
+		}
+
+		public boolean isDone() {
+			return fetch.isDone();
+		}
+
+		public String get() throws InterruptedException, ExecutionException {
+			HTTPResponse httpResponse;
+			try {
+				httpResponse = fetch.get();
+			} catch (ExecutionException e) {
+				throw toFacebookException(e);
+			}
+			return read(httpResponse);
+		}
+
+		public String get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			HTTPResponse httpResponse;
+			try {
+				httpResponse = fetch.get(timeout, unit);
+			} catch (ExecutionException e) {
+				throw toFacebookException(e);
+			}
+			return read(httpResponse);
+		}
+
+		private synchronized String read(HTTPResponse httpResponse) throws ExecutionException {
+			if (!read) {
+				try {
+					response = caller.read(httpResponse);
+				} catch (FacebookException e) {
+					exception = e;
+				}
+				read = true;
+			}
+			if (exception != null) {
+				throw new ExecutionException(exception);
+			}
+			return response;
+		}
+	}
+
+}
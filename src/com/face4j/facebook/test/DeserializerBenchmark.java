@@ -0,0 +1,123 @@
+package com.face4j.facebook.test;
+
+import java.lang.reflect.Type;
+
+import com.face4j.facebook.entity.Page;
+import com.face4j.facebook.entity.Post;
+import com.face4j.facebook.entity.User;
+import com.face4j.facebook.exception.FacebookException;
+import com.face4j.facebook.fql.FqlPost;
+import com.face4j.facebook.util.JSONToObjectTransformer;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * Times binding User, Page, Post and FqlPost with gson's reflection against the switch based deserializers registered
+ * in {@link JSONToObjectTransformer}, on a fixed json corpus. Both sides parse the same text into a tree first, the
+ * deserializer side also goes through the error check of JSONToObjectTransformer. Not part of the build, run it with
+ * the face4j classes and lib/*.jar on the classpath:
+ *
+ * <pre>
+ * java com.face4j.facebook.test.DeserializerBenchmark [iterations]
+ * </pre>
+ */
+public class DeserializerBenchmark {
+
+	private static final String USER = "{\"id\":\"100000763980384\",\"name\":\"Manav Mehta\",\"first_name\":\"Manav\","
+			+ "\"last_name\":\"Mehta\",\"link\":\"http://www.facebook.com/manav.mehta\",\"username\":\"manav.mehta\","
+			+ "\"gender\":\"male\",\"locale\":\"en_US\",\"timezone\":\"5.5\",\"verified\":true,"
+			+ "\"updated_time\":\"2011-04-03T07:44:21+0000\",\"birthday\":\"04/12/1985\",\"email\":\"manav@example.com\","
+			+ "\"bio\":\"Builds things.\",\"interested_in\":[\"female\"],\"relationship_status\":\"Single\","
+			+ "\"location\":{\"id\":\"106377336067638\",\"name\":\"Bangalore, India\"},"
+			+ "\"hometown\":{\"id\":\"114759761873412\",\"name\":\"Mumbai, India\"},"
+			+ "\"languages\":[{\"id\":\"106059522759137\",\"name\":\"English\"},{\"id\":\"112969428713061\",\"name\":\"Hindi\"}]}";
+
+	private static final String PAGE = "{\"id\":\"20531316728\",\"name\":\"Facebook\","
+			+ "\"link\":\"http://www.facebook.com/facebook\",\"category\":\"Product/service\",\"likes\":42318263,"
+			+ "\"checkins\":12,\"phone\":\"+1 650 543 4800\"}";
+
+	private static final String POST = "{\"id\":\"20531316728_10150179574171729\","
+			+ "\"from\":{\"name\":\"Facebook\",\"category\":\"Product/service\",\"id\":\"20531316728\"},"
+			+ "\"message\":\"Today we're launching a new way to share \\\"moments\\\" with friends.\","
+			+ "\"picture\":\"http://photos-a.ak.fbcdn.net/photos-ak-snc1/v27562/74/2231/s.jpg\","
+			+ "\"link\":\"http://www.facebook.com/blog.php?post=10150179574171729\",\"name\":\"Facebook Blog\","
+			+ "\"caption\":\"blog.facebook.com\",\"description\":\"A new way to share.\","
+			+ "\"icon\":\"http://static.ak.fbcdn.net/rsrc.php/v1/yD/r/aS8ecmYRys0.gif\","
+			+ "\"actions\":[{\"name\":\"Comment\",\"link\":\"http://www.facebook.com/20531316728/posts/1\"},"
+			+ "{\"name\":\"Like\",\"link\":\"http://www.facebook.com/20531316728/posts/1\"}],"
+			+ "\"type\":\"link\",\"object_id\":\"10150179574171729\",\"application\":{\"name\":\"Links\",\"id\":\"2309869772\"},"
+			+ "\"created_time\":\"2011-04-06T17:03:22+0000\",\"updated_time\":\"2011-04-07T09:12:45+0000\","
+			+ "\"likes\":{\"data\":[{\"name\":\"Rupesh Chodankar\",\"id\":\"1326276311\"}],\"count\":5321},"
+			+ "\"comments\":{\"data\":[{\"id\":\"20531316728_10150179574171729_1\","
+			+ "\"from\":{\"name\":\"Prashant Dotiya\",\"id\":\"100000700842623\"},\"message\":\"Nice!\","
+			+ "\"created_time\":\"2011-04-06T17:05:01+0000\",\"likes\":3}],\"count\":812}}";
+
+	private static final String FQL_POST = "{\"post_id\":\"20531316728_10150179574171729\",\"viewer_id\":1326276311,"
+			+ "\"app_id\":\"2309869772\",\"source_id\":20531316728,\"updated_time\":1302167565,\"created_time\":1302109402,"
+			+ "\"filter_key\":\"\",\"attribution\":null,\"actor_id\":20531316728,\"target_id\":null,"
+			+ "\"message\":\"Today we're launching a new way to share moments with friends.\","
+			+ "\"action_links\":[{\"text\":\"Share\",\"href\":\"http://www.facebook.com/share.php\"}],"
+			+ "\"attachment\":{\"media\":[],\"name\":\"Facebook Blog\","
+			+ "\"href\":\"http://www.facebook.com/blog.php?post=10150179574171729\",\"caption\":\"blog.facebook.com\","
+			+ "\"description\":\"A new way to share.\",\"icon\":\"http://static.ak.fbcdn.net/rsrc.php/v1/yD/r/a.gif\"},"
+			+ "\"impressions\":null,\"comments\":{\"can_remove\":false,\"can_post\":true,\"count\":812},"
+			+ "\"likes\":{\"href\":\"http://www.facebook.com/browse/?type=likes\",\"count\":5321,"
+			+ "\"sample\":[1326276311,100000700842623],\"friends\":[],\"user_likes\":false,\"can_like\":true},"
+			+ "\"privacy\":{\"value\":\"EVERYONE\"},\"type\":80,\"tagged_ids\":[],\"is_hidden\":false,"
+			+ "\"permalink\":\"http://www.facebook.com/facebook/posts/10150179574171729\",\"xid\":null}";
+
+	private static final String[] CORPUS = { USER, PAGE, POST, FQL_POST };
+
+	private static final Class<?>[] TYPES = { User.class, Page.class, Post.class, FqlPost.class };
+
+	/**
+	 * The naming policy of the transformer's gson, without the deserializers
+	 */
+	private static final Gson reflectionGson = new GsonBuilder().setFieldNamingPolicy(
+			FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
+
+	public static void main(String[] args) throws FacebookException {
+		int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+
+		// warm up both paths so the timed runs measure compiled code
+		for (int i = 0; i < CORPUS.length; i++) {
+			time(i, iterations / 10, true);
+			time(i, iterations / 10, false);
+		}
+
+		System.out.println("type      reflection ns/op  deserializer ns/op  speedup");
+		for (int i = 0; i < CORPUS.length; i++) {
+			long reflection = time(i, iterations, true);
+			long deserializer = time(i, iterations, false);
+			System.out.println(String.format("%-9s %18d %19d %8.2f", TYPES[i].getSimpleName(), reflection / iterations,
+					deserializer / iterations, (double) reflection / deserializer));
+		}
+	}
+
+	/**
+	 * @return The nanoseconds taken to bind the corpus entry iterations times
+	 */
+	private static long time(int index, int iterations, boolean reflection) throws FacebookException {
+		String json = CORPUS[index];
+		Type type = TYPES[index];
+		Object sink = null;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			if (reflection) {
+				JsonElement tree = new JsonParser().parse(json);
+				sink = reflectionGson.fromJson(tree, type);
+			} else {
+				sink = JSONToObjectTransformer.getObject(json, type);
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		if (sink == null) {
+			throw new IllegalStateException("Nothing bound for " + type);
+		}
+		return elapsed;
+	}
+
+}
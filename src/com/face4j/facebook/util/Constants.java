@@ -20,6 +20,26 @@ public class Constants {
 
 	public static final String ME = "me";
 
+	/**
+	 * The old rest api url fql queries are sent to
+	 */
+	public static final String FQL_URL = "https://api.facebook.com/method/fql.query";
+
+	/**
+	 * A graph object, by its id
+	 */
+	public static final String OBJECT = "/OBJECT_ID";
+
+	/**
+	 * A connection of a graph object, such as its likes or its feed
+	 */
+	public static final String CONNECTION = "/OBJECT_ID/CONNECTION";
+	
+	/**
+	 * The maximum number of ids facebook accepts in one "ids" lookup
+	 */
+	public static final int MAX_IDS_PER_REQUEST = 50;
+
 	public static final String PARAM_CLIENT_ID = "client_id";
 
 	public static final String PARAM_CLIENT_SECRET = "client_secret";
@@ -34,6 +54,11 @@ public class Constants {
 
 	public static final String PARAM_DISPLAY = "display";
 
+	/**
+	 * Comma separated names of the fields facebook should return, instead of the default ones
+	 */
+	public static final String PARAM_FIELDS = "fields";
+
 	/**
 	 * To get the image pic for any facebook object, the graph url should end with /picture
 	 */
@@ -115,13 +140,17 @@ public class Constants {
 	
 	
 	/**
-	 * To be replaced for POST_
+	 * To be replaced for POST_, see {@link Endpoint} which builds the urls from these templates
 	 */
 	public static final String REPLACE_OBJECT_ID = "OBJECT_ID";
 	
 	public static final String REPLACE_PROFILE_ID = "PROFILE_ID";
 	
 	public static final String REPLACE_EVENT_ID = "EVENT_ID";
+	
+	public static final String REPLACE_ALBUM_ID = "ALBUM_ID";
+	
+	public static final String REPLACE_CONNECTION = "CONNECTION";
 
 	/**
 	 * This parameter needs to be sent along with the picture url to indicate the size of the pic to
@@ -0,0 +1,162 @@
+package com.face4j.facebook.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * FQL sends empty arrays as {} instead of []. This walks the parsed json along with the type it is about to be
+ * converted to, and swaps {} for [] only where an array or a collection is expected. Strings that happen to contain
+ * "{}" and object fields that are legitimately empty are left alone.
+ */
+final class EmptyObjectArrays {
+
+	/**
+	 * json name to declared type of the fields of every class seen so far, following the naming policy of the gson
+	 * used by {@link JSONToObjectTransformer}
+	 */
+	private static final ConcurrentMap<Class<?>, Map<String, Type>> fieldsCache = new ConcurrentHashMap<Class<?>, Map<String, Type>>();
+
+	private EmptyObjectArrays() {
+	}
+
+	/**
+	 * @return The json to convert, which is a new empty array if the json itself is an {} where an array is expected
+	 */
+	static JsonElement normalize(JsonElement json, Type type) {
+		if (json == null || json.isJsonNull() || json.isJsonPrimitive()) {
+			return json;
+		}
+
+		Type componentType = getComponentType(type);
+
+		if (componentType != null) {
+			if (json.isJsonObject()) {
+				return json.getAsJsonObject().entrySet().isEmpty() ? new JsonArray() : json;
+			}
+			JsonArray array = json.getAsJsonArray();
+			for (int i = 0; i < array.size(); i++) {
+				JsonElement item = array.get(i);
+				JsonElement normalized = normalize(item, componentType);
+				if (normalized != item) {
+					// JsonArray in gson 1.5 can't replace an element, rebuild it
+					return rebuild(array, componentType);
+				}
+			}
+			return json;
+		}
+
+		if (!json.isJsonObject()) {
+			return json;
+		}
+
+		JsonObject object = json.getAsJsonObject();
+
+		if (type instanceof ParameterizedType && Map.class.isAssignableFrom(getRawClass(type))) {
+			Type valueType = ((ParameterizedType) type).getActualTypeArguments()[1];
+			for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+				entry.setValue(normalize(entry.getValue(), valueType));
+			}
+			return json;
+		}
+
+		Class<?> rawClass = getRawClass(type);
+		if (rawClass == null || rawClass.getName().startsWith("java.")) {
+			return json;
+		}
+
+		Map<String, Type> fields = getFields(rawClass);
+		for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+			Type fieldType = fields.get(entry.getKey());
+			if (fieldType != null) {
+				entry.setValue(normalize(entry.getValue(), fieldType));
+			}
+		}
+		return json;
+	}
+
+	private static JsonArray rebuild(JsonArray array, Type componentType) {
+		JsonArray rebuilt = new JsonArray();
+		for (int i = 0; i < array.size(); i++) {
+			rebuilt.add(normalize(array.get(i), componentType));
+		}
+		return rebuilt;
+	}
+
+	/**
+	 * @return The element type if the type is an array or a collection, null otherwise
+	 */
+	private static Type getComponentType(Type type) {
+		if (type instanceof Class<?>) {
+			return ((Class<?>) type).isArray() ? ((Class<?>) type).getComponentType() : null;
+		}
+		if (type instanceof GenericArrayType) {
+			return ((GenericArrayType) type).getGenericComponentType();
+		}
+		if (type instanceof ParameterizedType && Collection.class.isAssignableFrom(getRawClass(type))) {
+			return ((ParameterizedType) type).getActualTypeArguments()[0];
+		}
+		return null;
+	}
+
+	private static Class<?> getRawClass(Type type) {
+		if (type instanceof Class<?>) {
+			return (Class<?>) type;
+		}
+		if (type instanceof ParameterizedType) {
+			return getRawClass(((ParameterizedType) type).getRawType());
+		}
+		return null;
+	}
+
+	private static Map<String, Type> getFields(Class<?> clazz) {
+		Map<String, Type> fields = fieldsCache.get(clazz);
+		if (fields == null) {
+			fields = new LinkedHashMap<String, Type>();
+			for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+				for (Field field : current.getDeclaredFields()) {
+					if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+						continue;
+					}
+					SerializedName serializedName = field.getAnnotation(SerializedName.class);
+					String name = (serializedName != null) ? serializedName.value() : toLowerCaseWithUnderscores(field.getName());
+					if (!fields.containsKey(name)) {
+						fields.put(name, field.getGenericType());
+					}
+				}
+			}
+			fields = Collections.unmodifiableMap(fields);
+			fieldsCache.putIfAbsent(clazz, fields);
+		}
+		return fields;
+	}
+
+	/**
+	 * Same translation as {@link com.google.gson.FieldNamingPolicy#LOWER_CASE_WITH_UNDERSCORES}
+	 */
+	private static String toLowerCaseWithUnderscores(String name) {
+		StringBuilder builder = new StringBuilder(name.length() + 4);
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (Character.isUpperCase(c) && builder.length() > 0) {
+				builder.append('_');
+			}
+			builder.append(Character.toLowerCase(c));
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,185 @@
+package com.face4j.facebook.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A graph api url template, such as {@link Constants#POST_FEED}, split once into its fixed parts and its placeholders
+ * (the path segments written in capitals, like PROFILE_ID). Building a url then is a single append of the parts and
+ * the ids into a buffer of the right size; the ids are put in as they are, no regex is involved. <br>
+ *
+ * Instances are immutable and thread safe.
+ */
+public final class Endpoint {
+
+	public static final Endpoint GRAPH = graph("/");
+
+	public static final Endpoint OBJECT = graph(Constants.OBJECT);
+
+	public static final Endpoint CONNECTION = graph(Constants.CONNECTION);
+
+	public static final Endpoint LINKS = graph(Constants.POST_LINK);
+
+	public static final Endpoint FEED = graph(Constants.POST_FEED);
+
+	public static final Endpoint COMMENTS = graph(Constants.POST_COMMENTS);
+
+	public static final Endpoint LIKES = graph(Constants.POST_LIKES);
+
+	public static final Endpoint NOTES = graph(Constants.POST_NOTES);
+
+	public static final Endpoint EVENTS = graph(Constants.POST_EVENTS);
+
+	public static final Endpoint ATTENDING = graph(Constants.POST_ATTENDING);
+
+	public static final Endpoint MAYBE = graph(Constants.POST_MAYBE);
+
+	public static final Endpoint DECLINED = graph(Constants.POST_DECLINED);
+
+	public static final Endpoint ALBUMS = graph(Constants.POST_ALBUMS);
+
+	public static final Endpoint PHOTOS = graph(Constants.POST_PHOTOS);
+
+	public static final Endpoint CHECKINS = graph(Constants.POST_CHECKINS);
+
+	public static final Endpoint TAB = graph("/PAGE_ID/tabs/TAB_ID");
+
+	private final String template;
+
+	/**
+	 * parts[0] is the url up to the first placeholder, parts[i] what follows placeholder i
+	 */
+	private final String[] parts;
+
+	private final int partsLength;
+
+	/**
+	 * Offset of the relative path in the built url, past the graph url and the leading '/'
+	 */
+	private final int pathOffset;
+
+	private Endpoint(String template, String[] parts, int pathOffset) {
+		this.template = template;
+		this.parts = parts;
+		this.pathOffset = pathOffset;
+		int length = 0;
+		for (String part : parts) {
+			length += part.length();
+		}
+		this.partsLength = length;
+	}
+
+	/**
+	 * @param template A path on {@link Constants#FACEBOOK_GRAPH_URL} such as "/OBJECT_ID/comments"
+	 */
+	public static Endpoint graph(String template) {
+		return compile(Constants.FACEBOOK_GRAPH_URL, template);
+	}
+
+	/**
+	 * @param baseURL Prepended to the template
+	 * @param template Path with placeholders, a placeholder is a path segment of only capitals and '_'
+	 */
+	public static Endpoint compile(String baseURL, String template) {
+		List<String> parts = new ArrayList<String>();
+		StringBuilder part = new StringBuilder(baseURL);
+
+		int start = 0;
+		while (start <= template.length()) {
+			int end = template.indexOf('/', start);
+			if (end < 0) {
+				end = template.length();
+			}
+			if (isPlaceholder(template, start, end)) {
+				parts.add(part.toString());
+				part.setLength(0);
+			} else {
+				part.append(template, start, end);
+			}
+			if (end < template.length()) {
+				part.append('/');
+			}
+			start = end + 1;
+		}
+		parts.add(part.toString());
+
+		int pathOffset = baseURL.length() + (template.startsWith("/") ? 1 : 0);
+		return new Endpoint(template, parts.toArray(new String[parts.size()]), pathOffset);
+	}
+
+	private static boolean isPlaceholder(String template, int start, int end) {
+		if (start == end) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			char c = template.charAt(i);
+			if ((c < 'A' || c > 'Z') && c != '_') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public String getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @return The number of ids the template takes
+	 */
+	public int getPlaceholderCount() {
+		return parts.length - 1;
+	}
+
+	/**
+	 * The url of a template without placeholders
+	 */
+	public String url() {
+		checkCount(0);
+		return parts[0];
+	}
+
+	/**
+	 * @param id Replaces the one placeholder of the template
+	 */
+	public String url(String id) {
+		checkCount(1);
+		return new StringBuilder(partsLength + id.length()).append(parts[0]).append(id).append(parts[1]).toString();
+	}
+
+	/**
+	 * @param id Replaces the first placeholder of the template
+	 * @param second Replaces the second one, e.g. the connection of {@link #CONNECTION}
+	 */
+	public String url(String id, String second) {
+		checkCount(2);
+		return new StringBuilder(partsLength + id.length() + second.length()).append(parts[0]).append(id).append(
+				parts[1]).append(second).append(parts[2]).toString();
+	}
+
+	/**
+	 * @return The url relative to the graph url, without the leading '/', as the calls of a batch request take it
+	 */
+	public String path(String id) {
+		return url(id).substring(pathOffset);
+	}
+
+	/**
+	 * Same as {@link #path(String)} for a template with two placeholders
+	 */
+	public String path(String id, String second) {
+		return url(id, second).substring(pathOffset);
+	}
+
+	private void checkCount(int count) {
+		if (parts.length - 1 != count) {
+			throw new IllegalArgumentException(template + " takes " + (parts.length - 1) + " ids, not " + count);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return template;
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.face4j.facebook.util;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+
+/**
+ * Base for the hand written deserializers of the entities that are read the most. Instead of going through gson's
+ * reflection and field name translation for every field of every object, the json names are looked up once in a map
+ * of the enum F and the subclass sets the field directly. Unknown fields and nulls are skipped, the same as gson does.
+ * <br>
+ *
+ * The json name of a field is the name of its enum constant in lower case, e.g. FIRST_NAME is "first_name".
+ *
+ * @param <T> The entity
+ * @param <F> The fields of the entity
+ */
+abstract class EntityDeserializer<T, F extends Enum<F>> implements JsonDeserializer<T> {
+
+	private final Map<String, F> fields = new HashMap<String, F>();
+
+	EntityDeserializer(Class<F> fieldsClass) {
+		for (F field : fieldsClass.getEnumConstants()) {
+			fields.put(field.name().toLowerCase(Locale.ENGLISH), field);
+		}
+	}
+
+	public T deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
+		if (!json.isJsonObject()) {
+			throw new JsonParseException("Expected an object for " + typeOfT + " but was " + json);
+		}
+
+		T entity = newInstance();
+
+		for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+			F field = fields.get(entry.getKey());
+			JsonElement value = entry.getValue();
+			if (field != null && !value.isJsonNull()) {
+				set(entity, field, value, context);
+			}
+		}
+		return entity;
+	}
+
+	abstract T newInstance();
+
+	abstract void set(T entity, F field, JsonElement value, JsonDeserializationContext context);
+
+	static String asString(JsonElement value) {
+		return value.getAsString();
+	}
+
+	static Boolean asBoolean(JsonElement value) {
+		return Boolean.valueOf(value.getAsBoolean());
+	}
+
+	static Integer asInteger(JsonElement value) {
+		return Integer.valueOf(value.getAsInt());
+	}
+
+	static Long asLong(JsonElement value) {
+		return Long.valueOf(value.getAsLong());
+	}
+
+	static <E> E as(JsonElement value, Type type, JsonDeserializationContext context) {
+		return context.<E> deserialize(value, type);
+	}
+
+}
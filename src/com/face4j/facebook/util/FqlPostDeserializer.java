@@ -0,0 +1,115 @@
+package com.face4j.facebook.util;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+import com.face4j.facebook.fql.FqlActionLink;
+import com.face4j.facebook.fql.FqlAttachment;
+import com.face4j.facebook.fql.FqlComments;
+import com.face4j.facebook.fql.FqlLikes;
+import com.face4j.facebook.fql.FqlPost;
+import com.face4j.facebook.fql.FqlPrivacy;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Reads a {@link FqlPost} without reflection, see {@link EntityDeserializer}
+ */
+class FqlPostDeserializer extends EntityDeserializer<FqlPost, FqlPostDeserializer.Field> {
+
+	private static final Type ACTION_LINKS_TYPE = new TypeToken<List<FqlActionLink>>() {
+	}.getType();
+
+	private static final Type TAGGED_IDS_TYPE = new TypeToken<List<Long>>() {
+	}.getType();
+
+	enum Field {
+		POST_ID, VIEWER_ID, APP_ID, SOURCE_ID, UPDATED_TIME, CREATED_TIME, FILTER_KEY, ATTRIBUTION, ACTOR_ID,
+		TARGET_ID, MESSAGE, ACTION_LINKS, ATTACHMENT, IMPRESSIONS, COMMENTS, LIKES, PRIVACY, TYPE, TAGGED_IDS,
+		IS_HIDDEN, PERMALINK, XID
+	}
+
+	FqlPostDeserializer() {
+		super(Field.class);
+	}
+
+	@Override
+	FqlPost newInstance() {
+		return new FqlPost();
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	void set(FqlPost fqlPost, Field field, JsonElement value, JsonDeserializationContext context) {
+		switch (field) {
+		case POST_ID:
+			fqlPost.setPostId(asString(value));
+			break;
+		case VIEWER_ID:
+			fqlPost.setViewerId(asString(value));
+			break;
+		case APP_ID:
+			fqlPost.setAppId(asString(value));
+			break;
+		case SOURCE_ID:
+			fqlPost.setSourceId(asString(value));
+			break;
+		case UPDATED_TIME:
+			fqlPost.setUpdatedTime(asLong(value));
+			break;
+		case CREATED_TIME:
+			fqlPost.setCreatedTime(asLong(value));
+			break;
+		case FILTER_KEY:
+			fqlPost.setFilterKey(asString(value));
+			break;
+		case ATTRIBUTION:
+			fqlPost.setAttribution(asString(value));
+			break;
+		case ACTOR_ID:
+			fqlPost.setActorId(asString(value));
+			break;
+		case TARGET_ID:
+			fqlPost.setTargetId(asString(value));
+			break;
+		case MESSAGE:
+			fqlPost.setMessage(asString(value));
+			break;
+		case ACTION_LINKS:
+			fqlPost.setActionLinks(EntityDeserializer.<List<FqlActionLink>> as(value, ACTION_LINKS_TYPE, context));
+			break;
+		case ATTACHMENT:
+			fqlPost.setAttachment(EntityDeserializer.<FqlAttachment> as(value, FqlAttachment.class, context));
+			break;
+		case IMPRESSIONS:
+			fqlPost.setImpressions(asInteger(value));
+			break;
+		case COMMENTS:
+			fqlPost.setComments(EntityDeserializer.<FqlComments> as(value, FqlComments.class, context));
+			break;
+		case LIKES:
+			fqlPost.setLikes(EntityDeserializer.<FqlLikes> as(value, FqlLikes.class, context));
+			break;
+		case PRIVACY:
+			fqlPost.setPrivacy(EntityDeserializer.<FqlPrivacy> as(value, FqlPrivacy.class, context));
+			break;
+		case TYPE:
+			fqlPost.setType(asString(value));
+			break;
+		case TAGGED_IDS:
+			fqlPost.setTaggedIds(EntityDeserializer.<List<Long>> as(value, TAGGED_IDS_TYPE, context));
+			break;
+		case IS_HIDDEN:
+			fqlPost.setIsHidden(asBoolean(value));
+			break;
+		case PERMALINK:
+			fqlPost.setPermalink(asString(value));
+			break;
+		case XID:
+			fqlPost.setXid(asInteger(value));
+			break;
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.face4j.facebook.util;
+
+import com.face4j.facebook.entity.HighSchoolInfo;
+import com.face4j.facebook.entity.Location;
+import com.face4j.facebook.fql.FqlUser;
+import com.face4j.facebook.fql.otherentities.FqlEducation;
+import com.face4j.facebook.fql.otherentities.FqlWork;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
+
+/**
+ * Reads a {@link FqlUser} without reflection, see {@link EntityDeserializer}
+ */
+class FqlUserDeserializer extends EntityDeserializer<FqlUser, FqlUserDeserializer.Field> {
+
+	enum Field {
+		UID, FIRST_NAME, MIDDLE_NAME, LAST_NAME, NAME, PIC_SMALL, PIC_BIG, PIC_SQUARE, PIC, AFFILIATIONS,
+		PROFILE_UPDATE_TIME, TIME_ZONE, RELIGION, BIRTHDAY, BIRTHDAY_DATE, SEX, HOMETOWN_LOCATION, MEETING_SEX,
+		MEETING_FOR, RELATIONSHIP_STATUS, SIGNIFICANT_OTHER_ID, POLITICAL, CURRENT_LOCATION, ACTIVITIES, INTERESTS,
+		IS_APP_USER, MUSIC, TV, MOVIES, BOOKS, QUOTES, ABOUT_ME, HS_INFO, EDUCATION_HISTORY, WORK_HISTORY,
+		NOTES_COUNT, WALL_COUNT, STATUS, HAS_ADDED_APP, ONLINE_PRESENCE, LOCALE, PROXIED_EMAIL, PROFILE_URL,
+		EMAIL_HASHES, PIC_SMALL_WITH_LOGO, PIC_BIG_WITH_LOGO, PIC_SQUARE_WITH_LOGO, PIC_WITH_LOGO,
+		ALLOWED_RESTRICTIONS, VERIFIED, PROFILE_BLURB, USERNAME, WEBSITE, IS_BLOCKED, CONTACT_EMAIL, EMAIL,
+		THIRD_PARTY_ID
+	}
+
+	FqlUserDeserializer() {
+		super(Field.class);
+	}
+
+	@Override
+	FqlUser newInstance() {
+		return new FqlUser();
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	void set(FqlUser fqlUser, Field field, JsonElement value, JsonDeserializationContext context) {
+		switch (field) {
+		case UID:
+			fqlUser.setUid(asString(value));
+			break;
+		case FIRST_NAME:
+			fqlUser.setFirstName(asString(value));
+			break;
+		case MIDDLE_NAME:
+			fqlUser.setMiddleName(asString(value));
+			break;
+		case LAST_NAME:
+			fqlUser.setLastName(asString(value));
+			break;
+		case NAME:
+			fqlUser.setName(asString(value));
+			break;
+		case PIC_SMALL:
+			fqlUser.setPicSmall(asString(value));
+			break;
+		case PIC_BIG:
+			fqlUser.setPicBig(asString(value));
+			break;
+		case PIC_SQUARE:
+			fqlUser.setPicSquare(asString(value));
+			break;
+		case PIC:
+			fqlUser.setPic(asString(value));
+			break;
+		case AFFILIATIONS:
+			fqlUser.setAffiliations(EntityDeserializer.<String[]> as(value, String[].class, context));
+			break;
+		case PROFILE_UPDATE_TIME:
+			fqlUser.setProfileUpdateTime(asLong(value));
+			break;
+		case TIME_ZONE:
+			fqlUser.setTimeZone(asString(value));
+			break;
+		case RELIGION:
+			fqlUser.setReligion(asString(value));
+			break;
+		case BIRTHDAY:
+			fqlUser.setBirthday(asString(value));
+			break;
+		case BIRTHDAY_DATE:
+			fqlUser.setBirthdayDate(asString(value));
+			break;
+		case SEX:
+			fqlUser.setSex(asString(value));
+			break;
+		case HOMETOWN_LOCATION:
+			fqlUser.setHometownLocation(EntityDeserializer.<Location[]> as(value, Location[].class, context));
+			break;
+		case MEETING_SEX:
+			fqlUser.setMeetingSex(EntityDeserializer.<String[]> as(value, String[].class, context));
+			break;
+		case MEETING_FOR:
+			fqlUser.setMeetingFor(EntityDeserializer.<String[]> as(value, String[].class, context));
+			break;
+		case RELATIONSHIP_STATUS:
+			fqlUser.setRelationshipStatus(asString(value));
+			break;
+		case SIGNIFICANT_OTHER_ID:
+			fqlUser.setSignificantOtherId(asString(value));
+			break;
+		case POLITICAL:
+			fqlUser.setPolitical(asString(value));
+			break;
+		case CURRENT_LOCATION:
+			fqlUser.setCurrentLocation(EntityDeserializer.<Location[]> as(value, Location[].class, context));
+			break;
+		case ACTIVITIES:
+			fqlUser.setActivities(asString(value));
+			break;
+		case INTERESTS:
+			fqlUser.setInterests(asString(value));
+			break;
+		case IS_APP_USER:
+			fqlUser.setIsAppUser(asBoolean(value));
+			break;
+		case MUSIC:
+			fqlUser.setMusic(asString(value));
+			break;
+		case TV:
+			fqlUser.setTv(asString(value));
+			break;
+		case MOVIES:
+			fqlUser.setMovies(asString(value));
+			break;
+		case BOOKS:
+			fqlUser.setBooks(asString(value));
+			break;
+		case QUOTES:
+			fqlUser.setQuotes(asString(value));
+			break;
+		case ABOUT_ME:
+			fqlUser.setAboutMe(asString(value));
+			break;
+		case HS_INFO:
+			fqlUser.setHs_info(EntityDeserializer.<HighSchoolInfo[]> as(value, HighSchoolInfo[].class, context));
+			break;
+		case EDUCATION_HISTORY:
+			fqlUser.setEducationHistory(EntityDeserializer.<FqlEducation[]> as(value, FqlEducation[].class, context));
+			break;
+		case WORK_HISTORY:
+			fqlUser.setWorkHistory(EntityDeserializer.<FqlWork[]> as(value, FqlWork[].class, context));
+			break;
+		case NOTES_COUNT:
+			fqlUser.setNotesCount(asInteger(value));
+			break;
+		case WALL_COUNT:
+			fqlUser.setWallCount(asInteger(value));
+			break;
+		case STATUS:
+			fqlUser.setStatus(asString(value));
+			break;
+		case HAS_ADDED_APP:
+			fqlUser.setHasAddedApp(asBoolean(value));
+			break;
+		case ONLINE_PRESENCE:
+			fqlUser.setOnlinePresence(asString(value));
+			break;
+		case LOCALE:
+			fqlUser.setLocale(asString(value));
+			break;
+		case PROXIED_EMAIL:
+			fqlUser.setProxiedEmail(asString(value));
+			break;
+		case PROFILE_URL:
+			fqlUser.setProfileUrl(asString(value));
+			break;
+		case EMAIL_HASHES:
+			fqlUser.setEmailHashes(EntityDeserializer.<String[]> as(value, String[].class, context));
+			break;
+		case PIC_SMALL_WITH_LOGO:
+			fqlUser.setPicSmallWithLogo(asString(value));
+			break;
+		case PIC_BIG_WITH_LOGO:
+			fqlUser.setPicBigWithLogo(asString(value));
+			break;
+		case PIC_SQUARE_WITH_LOGO:
+			fqlUser.setPicSquareWithLogo(asString(value));
+			break;
+		case PIC_WITH_LOGO:
+			fqlUser.setPicWithLogo(asString(value));
+			break;
+		case ALLOWED_RESTRICTIONS:
+			fqlUser.setAllowedRestrictions(asString(value));
+			break;
+		case VERIFIED:
+			fqlUser.setVerified(asBoolean(value));
+			break;
+		case PROFILE_BLURB:
+			fqlUser.setProfileBlurb(asString(value));
+			break;
+		case USERNAME:
+			fqlUser.setUsername(asString(value));
+			break;
+		case WEBSITE:
+			fqlUser.setWebsite(asString(value));
+			break;
+		case IS_BLOCKED:
+			fqlUser.setIsBlocked(asBoolean(value));
+			break;
+		case CONTACT_EMAIL:
+			fqlUser.setContactEmail(asString(value));
+			break;
+		case EMAIL:
+			fqlUser.setEmail(asString(value));
+			break;
+		case THIRD_PARTY_ID:
+			fqlUser.setThirdPartyId(asString(value));
+			break;
+		}
+	}
+
+}
@@ -1,17 +1,32 @@
 package com.face4j.facebook.util;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Array;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.face4j.facebook.entity.Page;
 import com.face4j.facebook.entity.Post;
 import com.face4j.facebook.entity.User;
 import com.face4j.facebook.exception.FacebookError;
 import com.face4j.facebook.exception.FacebookException;
-import com.face4j.facebook.exception.HttpError;
+import com.face4j.facebook.exception.GenericError;
+import com.face4j.facebook.fql.FqlPost;
+import com.face4j.facebook.fql.FqlRowHandler;
+import com.face4j.facebook.fql.FqlUser;
+import com.face4j.facebook.http.ResponseHandler;
 import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 
 /**
  * Convert JSON to appropriate objects
@@ -29,55 +44,298 @@ public class JSONToObjectTransformer {
 	 * API.
 	 */
 	private static final Gson gson = new GsonBuilder()
-			.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES).create();
+			.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+			// the entities read the most are bound without reflection
+			.registerTypeAdapter(User.class, new UserDeserializer())
+			.registerTypeAdapter(Post.class, new PostDeserializer())
+			.registerTypeAdapter(Page.class, new PageDeserializer())
+			.registerTypeAdapter(FqlPost.class, new FqlPostDeserializer())
+			.registerTypeAdapter(FqlUser.class, new FqlUserDeserializer()).create();
+	
+	/**
+	 * The fields of an {@link FqlPost} a lazy read keeps as raw json, see {@link #getObject(String, Type, boolean)}
+	 */
+	private static final String[] LAZY_FQL_POST_FIELDS = { "attachment", "comments", "likes", "privacy" };
 
 	public static User getUser(String userJSON) throws FacebookException {
-		//If facebook returns an error then throw the error
-		errorCheck(userJSON);
-		return gson.fromJson(userJSON, User.class);
+		return getObject(userJSON, User.class);
 	}
 	
 	public static Post getPost(String postJson) throws FacebookException{
-		//If facebook returns an error then throw the error
-		errorCheck(postJson);
-		return gson.fromJson(postJson, Post.class);
+		return getObject(postJson, Post.class);
 	}
 
 	public static <E> E getObject(String json, Class<E> e) throws FacebookException {
+		return JSONToObjectTransformer.<E>getObject(json, (Type) e);
+	}
+
+	public static <E> E getObject(String json, Type type) throws FacebookException {
+		return JSONToObjectTransformer.<E>getObject(json, type, false);
+	}
+
+	/**
+	 * @param lazy If true the attachment, comments, likes and privacy of {@link FqlPost}s, read as an FqlPost or an
+	 *          FqlPost[], are cut out of the json text without being parsed, and only bound when their getter is first
+	 *          called. Ignored for other types.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E> E getObject(String json, Type type, boolean lazy) throws FacebookException {
+		if (lazy && type == FqlPost.class) {
+			return (E) getLazyFqlPost(json);
+		}
+		if (lazy && type == FqlPost[].class) {
+			return (E) getLazyFqlPosts(json);
+		}
+		
+		JsonElement jsonElement = null;
+		try {
+			jsonElement = new JsonParser().parse(json);
+		} catch(JsonParseException exception){
+			logger.log(Level.SEVERE, "Data received from Facebook for type "+type+" is "+json,exception);
+			throw new FacebookException("Error while parsing data received from Facebook. Send this to nischal@grabinbox.com : "+json, exception);
+		}
+		return JSONToObjectTransformer.<E>getObject(jsonElement, type);
+	}
+
+	/**
+	 * Reads the json directly from the reader, without a String copy of the response
+	 * 
+	 * @param <E>
+	 * @param reader
+	 * @param type
+	 * @return
+	 * @throws FacebookException
+	 */
+	public static <E> E getObject(Reader reader, Type type) throws FacebookException {
+		JsonElement jsonElement = null;
+		try {
+			jsonElement = new JsonParser().parse(reader);
+		} catch(JsonParseException exception){
+			throw new FacebookException("Error while parsing data received from Facebook for type "+type, exception);
+		}
+		return JSONToObjectTransformer.<E>getObject(jsonElement, type);
+	}
+	
+	/**
+	 * Every response ends up here once parsed. The json is only ever parsed once: facebook errors are detected by
+	 * looking at the root of the parsed json, and the same parsed json is then converted into the requested type.
+	 */
+	private static <E> E getObject(JsonElement json, Type type) throws FacebookException {
 		//If facebook returns an error then throw the error
 		errorCheck(json);
 		
 		try {
-			return gson.fromJson(json, e);
+			// fql sends empty arrays as {}
+			json = EmptyObjectArrays.normalize(json, type);
+			return gson.<E>fromJson(json, type);
 		} catch(Exception exception){
-			logger.log(Level.SEVERE, "Data received from Facebook for class "+e.getName()+" is "+json,exception);
+			logger.log(Level.SEVERE, "Data received from Facebook for type "+type+" is "+json,exception);
 			throw new FacebookException("Error while converting object. Send this to nischal@grabinbox.com : "+json, exception);
 		}
 	}
-
-	public static <E> E getObject(String json, Type type) throws FacebookException {
-		//If facebook returns an error then throw the error
-		errorCheck(json);
-		return gson.<E>fromJson(json, type);
+	
+	/**
+	 * The post without its heavy fields, which are kept as the raw json cut out of the row
+	 */
+	private static FqlPost getLazyFqlPost(String json) throws FacebookException {
+		String[] raw = new String[LAZY_FQL_POST_FIELDS.length];
+		FqlPost fqlPost = getObject(JsonSlicer.slice(json, LAZY_FQL_POST_FIELDS, raw), FqlPost.class);
+		if (fqlPost != null) {
+			if (isValue(raw[0])) {
+				fqlPost.setAttachmentJson(raw[0]);
+			}
+			if (isValue(raw[1])) {
+				fqlPost.setCommentsJson(raw[1]);
+			}
+			if (isValue(raw[2])) {
+				fqlPost.setLikesJson(raw[2]);
+			}
+			if (isValue(raw[3])) {
+				fqlPost.setPrivacyJson(raw[3]);
+			}
+		}
+		return fqlPost;
 	}
-
-	private static void errorCheck(String json) throws FacebookException {
-		if(json.contains("error_code")){
-			
-			FacebookError error = null;
-			try {
-				error = gson.fromJson(json, FacebookError.class);
-			} catch(Exception exception){
-				throw new FacebookException("Error in converting facebook error to FacebookError object! Facebook data is: "+json,exception);
+	
+	/**
+	 * Reads the posts row by row, see {@link #getLazyFqlPost(String)}
+	 */
+	private static FqlPost[] getLazyFqlPosts(String json) throws FacebookException {
+		JsonArrayReader arrayReader = new JsonArrayReader(new StringReader(json));
+		List<FqlPost> fqlPosts = new ArrayList<FqlPost>();
+		try {
+			String notAnArray = arrayReader.begin();
+			if (notAnArray != null) {
+				// an error, or fql's {} for no rows
+				return getObject(notAnArray, FqlPost[].class);
+			}
+			for (String row = arrayReader.next(); row != null; row = arrayReader.next()) {
+				fqlPosts.add(getLazyFqlPost(row));
+			}
+		} catch(IOException exception){
+			logger.log(Level.SEVERE, "Data received from Facebook for type "+FqlPost[].class+" is "+json,exception);
+			throw new FacebookException("Error while parsing data received from Facebook. Send this to nischal@grabinbox.com : "+json, exception);
+		}
+		return fqlPosts.toArray(new FqlPost[fqlPosts.size()]);
+	}
+	
+	private static boolean isValue(String raw) {
+		return raw != null && !"null".equals(raw);
+	}
+	
+	/**
+	 * Binds json that was kept raw by a lazy read. It was already checked for errors when the response was read, so
+	 * only runtime exceptions are thrown.
+	 * 
+	 * @param <E>
+	 * @param json
+	 * @param e
+	 * @return
+	 */
+	public static <E> E getLazyObject(String json, Class<E> e) {
+		// fql sends empty arrays as {}
+		return gson.<E>fromJson(EmptyObjectArrays.normalize(new JsonParser().parse(json), e), e);
+	}
+	
+	/**
+	 * Returns a handler that converts a streamed response into the given type, see {@link #getObject(Reader, Type)}
+	 * @param <E>
+	 * @param type
+	 * @return
+	 */
+	public static <E> ResponseHandler<E> getResponseHandler(final Type type) {
+		return new ResponseHandler<E>() {
+			public E handle(Reader reader) throws FacebookException {
+				return JSONToObjectTransformer.<E>getObject(reader, type);
+			}
+		};
+	}
+	
+	/**
+	 * Reads a json array row by row, handing each converted row to the handler before the next one is read. Memory use
+	 * depends on the size of a row, not on the number of rows.
+	 * 
+	 * @param <E>
+	 * @param reader
+	 * @param rowType
+	 * @param lazy See {@link #getObject(String, Type, boolean)}
+	 * @param rowHandler
+	 * @return The number of rows read
+	 * @throws FacebookException
+	 */
+	public static <E> int getRows(Reader reader, Class<E> rowType, boolean lazy, FqlRowHandler<E> rowHandler) throws FacebookException {
+		JsonArrayReader arrayReader = new JsonArrayReader(reader);
+		int rows = 0;
+		
+		try {
+			String notAnArray = arrayReader.begin();
+			if (notAnArray != null) {
+				// an error, or fql's {} for no rows
+				JSONToObjectTransformer.<E[]>getObject(notAnArray, Array.newInstance(rowType, 0).getClass());
+				return 0;
 			}
 			
+			for (String row = arrayReader.next(); row != null; row = arrayReader.next()) {
+				rowHandler.handleRow(JSONToObjectTransformer.<E>getObject(row, rowType, lazy));
+				rows++;
+			}
+		} catch(IOException exception){
+			throw new FacebookException("Error while reading data received from Facebook after "+rows+" rows", exception);
+		}
+		return rows;
+	}
+	
+	/**
+	 * Returns a handler that streams the response to the row handler, see {@link #getRows(Reader, Class, boolean, FqlRowHandler)}
+	 */
+	public static <E> ResponseHandler<Integer> getRowsHandler(final Class<E> rowType, final boolean lazy, final FqlRowHandler<E> rowHandler) {
+		return new ResponseHandler<Integer>() {
+			public Integer handle(Reader reader) throws FacebookException {
+				return Integer.valueOf(getRows(reader, rowType, lazy, rowHandler));
+			}
+		};
+	}
+	
+	/**
+	 * Converts the object to json following the same naming rules that are used for reading facebook data
+	 * @param object
+	 * @return
+	 */
+	public static String toJson(Object object) {
+		return gson.toJson(object);
+	}
+
+	/**
+	 * Facebook errors come as an object at the root of the response, either the old rest api/fql form
+	 * {"error_code":..., "error_msg":...} or the graph api form {"error":{"type":..., "message":...}}. Only the root is
+	 * looked at, so data that merely mentions "error_code" (a post message for instance) is not mistaken for an error.
+	 */
+	private static void errorCheck(JsonElement json) throws FacebookException {
+		FacebookError error = toError(json);
+		if(error != null){
 			throw new FacebookException(error);
 		}
 	}
 	
+	private static FacebookError toError(JsonElement json) throws FacebookException {
+		if(!json.isJsonObject()){
+			return null;
+		}
+		
+		JsonObject root = json.getAsJsonObject();
+		
+		try {
+			if(root.has("error_code")){
+				return gson.fromJson(root, FacebookError.class);
+			} else if(root.has("error") && root.get("error").isJsonObject()){
+				GenericError genericError = gson.fromJson(root.get("error"), GenericError.class);
+				return new FacebookError(genericError.getCode(), "Exception Type: "+genericError.getType()+ " " + genericError.getMessage(), null);
+			}
+		} catch(Exception exception){
+			throw new FacebookException("Error in converting facebook error to FacebookError object! Facebook data is: "+json,exception);
+		}
+		return null;
+	}
+	
+	/**
+	 * Returns the error facebook sent in the body of a successful (200) response, as the old rest api and fql do, null
+	 * if the response isn't an error. Only responses that mention an error are parsed.
+	 * 
+	 * @param response
+	 * @return
+	 */
+	public static FacebookError findError(String response) {
+		if(response == null || response.indexOf("\"error") < 0 || !response.trim().startsWith("{")){
+			return null;
+		}
+		try {
+			return toError(new JsonParser().parse(response));
+		} catch(Exception exception){
+			return null;
+		}
+	}
+	
+	/**
+	 * Converts the body of a response with an http status other than 200. The error code is the http status, the code
+	 * facebook sent in the body is kept as {@link FacebookError#getFacebookErrorCode()}.
+	 * 
+	 * @param response
+	 * @param statusCode
+	 * @return
+	 */
 	public static FacebookError getError(String response, int statusCode) {
-  	HttpError httpError =  gson.fromJson(response, HttpError.class);
-  	return new FacebookError(statusCode, "Exception Type: "+httpError.getError().getType()+ " " + httpError.getError().getMessage(), null);
+		FacebookError error = null;
+		try {
+			error = toError(new JsonParser().parse(response));
+		} catch(Exception exception){
+			// not json, proxies and load balancers send html
+		}
+		
+		if(error == null){
+			return new FacebookError(statusCode, "HTTP status code: "+statusCode, null, statusCode);
+		}
+		return new FacebookError(statusCode, error.getErrorMsg(), error.getRequestArgs(), statusCode,
+				error.getFacebookErrorCode());
 	}
 	
 	/*public static void main(String[] args) {
@@ -0,0 +1,117 @@
+package com.face4j.facebook.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a json array read from a stream into the json text of its elements, one element at a time, so that only one
+ * element is ever held in memory. Gson 1.5 can only parse a complete value, this hands it one element at a time.
+ */
+final class JsonArrayReader {
+
+	private final Reader reader;
+	private final StringBuilder element = new StringBuilder();
+
+	private int pushedBack = -2;
+
+	JsonArrayReader(Reader reader) {
+		this.reader = (reader instanceof BufferedReader) ? reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * Reads up to the start of the array
+	 *
+	 * @return null if the response is an array, otherwise the whole response (an error, or {} which fql sends when
+	 *         there are no rows)
+	 */
+	String begin() throws IOException {
+		int c = nextNonWhitespace();
+		if (c == '[') {
+			return null;
+		}
+
+		element.setLength(0);
+		char[] buffer = new char[1024];
+		for (int read = 0; read != -1; read = reader.read(buffer)) {
+			element.append(buffer, 0, read);
+		}
+		if (c != -1) {
+			element.insert(0, (char) c);
+		}
+		return element.toString();
+	}
+
+	/**
+	 * @return The json of the next element, null once the end of the array has been reached
+	 */
+	String next() throws IOException {
+		int c = nextNonWhitespace();
+		if (c == ',') {
+			c = nextNonWhitespace();
+		}
+		if (c == ']') {
+			return null;
+		}
+
+		element.setLength(0);
+		int depth = 0;
+		boolean inString = false;
+
+		while (true) {
+			if (c == -1) {
+				throw new IOException("The json array ended unexpectedly");
+			}
+
+			if (!inString && depth == 0 && element.length() > 0 && (c == ',' || c == ']' || Character.isWhitespace(c))) {
+				// end of a number, true, false or null
+				pushedBack = c;
+				return element.toString();
+			}
+
+			element.append((char) c);
+
+			if (inString) {
+				if (c == '\\') {
+					c = read();
+					if (c == -1) {
+						continue;
+					}
+					element.append((char) c);
+				} else if (c == '"') {
+					inString = false;
+				}
+			} else if (c == '"') {
+				inString = true;
+			} else if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				depth--;
+			}
+
+			if (!inString && depth == 0 && (c == '}' || c == ']' || c == '"')) {
+				return element.toString();
+			}
+
+			c = read();
+		}
+	}
+
+	private int read() throws IOException {
+		if (pushedBack != -2) {
+			int c = pushedBack;
+			pushedBack = -2;
+			return c;
+		}
+		return reader.read();
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		int c = read();
+		while (c != -1 && Character.isWhitespace(c)) {
+			c = read();
+		}
+		return c;
+	}
+
+}
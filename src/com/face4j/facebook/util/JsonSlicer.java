@@ -0,0 +1,138 @@
+package com.face4j.facebook.util;
+
+/**
+ * Cuts the values of some top level fields out of the json text of an object, without parsing them. Used to keep the
+ * heavy fields of an object as raw text while the rest of it is parsed and bound as usual.
+ */
+final class JsonSlicer {
+
+	private JsonSlicer() {
+	}
+
+	/**
+	 * @param json The json text of an object
+	 * @param names The fields to cut out
+	 * @param values Receives the raw json of each field found, at the index of its name
+	 * @return The json with each field found set to null. The json itself if it isn't an object or none of the fields
+	 *         is in it; malformed json is returned as it is, for the parser to report.
+	 */
+	static String slice(String json, String[] names, String[] values) {
+		int length = json.length();
+		int i = skipWhitespace(json, 0);
+		if (i >= length || json.charAt(i) != '{') {
+			return json;
+		}
+
+		StringBuilder sliced = null;
+		int copied = 0;
+		for (i++;; i++) {
+			i = skipWhitespace(json, i);
+			if (i >= length) {
+				return json;
+			}
+			char c = json.charAt(i);
+			if (c == '}') {
+				break;
+			}
+			if (c == ',') {
+				continue;
+			}
+			if (c != '"') {
+				return json;
+			}
+
+			int nameEnd = skipString(json, i);
+			int colon = skipWhitespace(json, nameEnd);
+			if (colon >= length || json.charAt(colon) != ':') {
+				return json;
+			}
+			int valueStart = skipWhitespace(json, colon + 1);
+			int valueEnd = skipValue(json, valueStart);
+
+			int index = indexOf(names, json, i + 1, nameEnd - 1);
+			if (index >= 0) {
+				values[index] = json.substring(valueStart, valueEnd);
+				if (sliced == null) {
+					sliced = new StringBuilder(length);
+				}
+				sliced.append(json, copied, valueStart).append("null");
+				copied = valueEnd;
+			}
+			i = valueEnd - 1;
+		}
+
+		return (sliced == null) ? json : sliced.append(json, copied, length).toString();
+	}
+
+	private static int indexOf(String[] names, String json, int start, int end) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].length() == end - start && json.regionMatches(start, names[i], 0, end - start)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int skipWhitespace(String json, int i) {
+		while (i < json.length() && Character.isWhitespace(json.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param i The opening quote
+	 * @return The index after the closing quote
+	 */
+	private static int skipString(String json, int i) {
+		for (i++; i < json.length(); i++) {
+			char c = json.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '"') {
+				return i + 1;
+			}
+		}
+		return json.length();
+	}
+
+	/**
+	 * @return The index after the value starting at i
+	 */
+	private static int skipValue(String json, int i) {
+		int length = json.length();
+		if (i >= length) {
+			return length;
+		}
+		char c = json.charAt(i);
+		if (c == '"') {
+			return skipString(json, i);
+		}
+		if (c != '{' && c != '[') {
+			// number, true, false or null
+			while (i < length && (c = json.charAt(i)) != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+				i++;
+			}
+			return i;
+		}
+
+		int depth = 0;
+		while (i < length) {
+			c = json.charAt(i);
+			if (c == '"') {
+				i = skipString(json, i);
+				continue;
+			}
+			if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				if (--depth == 0) {
+					return i + 1;
+				}
+			}
+			i++;
+		}
+		return length;
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.face4j.facebook.util;
+
+import com.face4j.facebook.entity.Page;
+import com.face4j.facebook.enums.PageField;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
+
+/**
+ * Reads a {@link Page} without reflection, see {@link EntityDeserializer}
+ */
+class PageDeserializer extends EntityDeserializer<Page, PageField> {
+
+	PageDeserializer() {
+		super(PageField.class);
+	}
+
+	@Override
+	Page newInstance() {
+		// the id is set from the json like every other field
+		return new Page(null);
+	}
+
+	@Override
+	void set(Page page, PageField field, JsonElement value, JsonDeserializationContext context) {
+		switch (field) {
+		case ID:
+			page.setId(asString(value));
+			break;
+		case NAME:
+			page.setName(asString(value));
+			break;
+		case LINK:
+			page.setLink(asString(value));
+			break;
+		case CATEGORY:
+			page.setCategory(asString(value));
+			break;
+		case LIKES:
+			page.setLikes(asInteger(value));
+			break;
+		case PHONE:
+			page.setPhone(asString(value));
+			break;
+		case CHECKINS:
+			page.setCheckins(asInteger(value));
+			break;
+		case ACCESS_TOKEN:
+			page.setAccessToken(asString(value));
+			break;
+		}
+	}
+
+}
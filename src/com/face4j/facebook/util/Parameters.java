@@ -0,0 +1,133 @@
+package com.face4j.facebook.util;
+
+import org.apache.commons.httpclient.NameValuePair;
+
+/**
+ * Collects the parameters of a request straight into the array the callers take, instead of a list that is copied
+ * into one. Parameters with a null value are left out, so optional ones can be added without checking them first.
+ * <br>
+ *
+ * Also encodes parameters for a query string or a form body, see {@link #encode(NameValuePair[])}.
+ */
+public final class Parameters {
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	private NameValuePair[] nameValuePairs;
+	private int size;
+
+	/**
+	 * @param capacity The number of parameters expected, the array grows if more are added
+	 */
+	public Parameters(int capacity) {
+		this.nameValuePairs = new NameValuePair[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Adds the parameter unless the value is null
+	 */
+	public Parameters add(String name, String value) {
+		if (value != null) {
+			add(new NameValuePair(name, value));
+		}
+		return this;
+	}
+
+	public Parameters add(NameValuePair nameValuePair) {
+		if (size == nameValuePairs.length) {
+			NameValuePair[] grown = new NameValuePair[size * 2];
+			System.arraycopy(nameValuePairs, 0, grown, 0, size);
+			nameValuePairs = grown;
+		}
+		nameValuePairs[size++] = nameValuePair;
+		return this;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The parameters added. No copy is made if the capacity was exact.
+	 */
+	public NameValuePair[] toArray() {
+		if (size == nameValuePairs.length) {
+			return nameValuePairs;
+		}
+		NameValuePair[] trimmed = new NameValuePair[size];
+		System.arraycopy(nameValuePairs, 0, trimmed, 0, size);
+		return trimmed;
+	}
+
+	/**
+	 * Encodes the parameters as application/x-www-form-urlencoded, the same as {@link java.net.URLEncoder} with UTF-8
+	 * does, into a single buffer. Names and values that need no escaping, which is most of them, are copied as they
+	 * are. Parameters with a null name or value are skipped.
+	 *
+	 * @return name=value pairs joined by '&amp;', an empty String if there are none
+	 */
+	public static String encode(NameValuePair[] nameValuePairs) {
+		if (nameValuePairs == null || nameValuePairs.length == 0) {
+			return "";
+		}
+
+		int length = 0;
+		for (NameValuePair nameValuePair : nameValuePairs) {
+			if (nameValuePair != null && nameValuePair.getName() != null && nameValuePair.getValue() != null) {
+				length += nameValuePair.getName().length() + nameValuePair.getValue().length() + 2;
+			}
+		}
+
+		StringBuilder builder = new StringBuilder(length + (length >> 2));
+		for (NameValuePair nameValuePair : nameValuePairs) {
+			if (nameValuePair != null && nameValuePair.getName() != null && nameValuePair.getValue() != null) {
+				if (builder.length() > 0) {
+					builder.append('&');
+				}
+				encode(nameValuePair.getName(), builder);
+				builder.append('=');
+				encode(nameValuePair.getValue(), builder);
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Appends the form encoded UTF-8 bytes of the value. Unpaired surrogates are encoded as '?', like
+	 * {@link String#getBytes(String)} does.
+	 */
+	static void encode(String value, StringBuilder builder) {
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-'
+					|| c == '*' || c == '_') {
+				builder.append(c);
+			} else if (c == ' ') {
+				builder.append('+');
+			} else if (c < 0x80) {
+				appendByte(c, builder);
+			} else if (c < 0x800) {
+				appendByte(0xC0 | (c >> 6), builder);
+				appendByte(0x80 | (c & 0x3F), builder);
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				appendByte(0xF0 | (codePoint >> 18), builder);
+				appendByte(0x80 | ((codePoint >> 12) & 0x3F), builder);
+				appendByte(0x80 | ((codePoint >> 6) & 0x3F), builder);
+				appendByte(0x80 | (codePoint & 0x3F), builder);
+			} else if (Character.isHighSurrogate(c) || Character.isLowSurrogate(c)) {
+				appendByte('?', builder);
+			} else {
+				appendByte(0xE0 | (c >> 12), builder);
+				appendByte(0x80 | ((c >> 6) & 0x3F), builder);
+				appendByte(0x80 | (c & 0x3F), builder);
+			}
+		}
+	}
+
+	private static void appendByte(int b, StringBuilder builder) {
+		builder.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.face4j.facebook.util;
+
+import com.face4j.facebook.entity.Action;
+import com.face4j.facebook.entity.Application;
+import com.face4j.facebook.entity.From;
+import com.face4j.facebook.entity.Post;
+import com.face4j.facebook.entity.Privacy;
+import com.face4j.facebook.entity.Property;
+import com.face4j.facebook.entity.Targeting;
+import com.face4j.facebook.entity.To;
+import com.face4j.facebook.entity.connection.Comments;
+import com.face4j.facebook.entity.connection.Likes;
+import com.face4j.facebook.enums.PostField;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
+
+/**
+ * Reads a {@link Post} without reflection, see {@link EntityDeserializer}
+ */
+class PostDeserializer extends EntityDeserializer<Post, PostField> {
+
+	PostDeserializer() {
+		super(PostField.class);
+	}
+
+	@Override
+	Post newInstance() {
+		// the id is set from the json like every other field
+		return new Post(null);
+	}
+
+	@Override
+	void set(Post post, PostField field, JsonElement value, JsonDeserializationContext context) {
+		switch (field) {
+		case ID:
+			post.setId(asString(value));
+			break;
+		case FROM:
+			post.setFrom(EntityDeserializer.<From> as(value, From.class, context));
+			break;
+		case TO:
+			post.setTo(EntityDeserializer.<To> as(value, To.class, context));
+			break;
+		case MESSAGE:
+			post.setMessage(asString(value));
+			break;
+		case PICTURE:
+			post.setPicture(asString(value));
+			break;
+		case LINK:
+			post.setLink(asString(value));
+			break;
+		case NAME:
+			post.setName(asString(value));
+			break;
+		case CAPTION:
+			post.setCaption(asString(value));
+			break;
+		case DESCRIPTION:
+			post.setDescription(asString(value));
+			break;
+		case SOURCE:
+			post.setSource(asString(value));
+			break;
+		case PROPERTIES:
+			post.setProperties(EntityDeserializer.<Property[]> as(value, Property[].class, context));
+			break;
+		case ICON:
+			post.setIcon(asString(value));
+			break;
+		case ACTIONS:
+			post.setActions(EntityDeserializer.<Action[]> as(value, Action[].class, context));
+			break;
+		case PRIVACY:
+			post.setPrivacy(EntityDeserializer.<Privacy> as(value, Privacy.class, context));
+			break;
+		case TYPE:
+			post.setType(asString(value));
+			break;
+		case LIKES:
+			post.setLikes(EntityDeserializer.<Likes> as(value, Likes.class, context));
+			break;
+		case COMMENTS:
+			post.setComments(EntityDeserializer.<Comments> as(value, Comments.class, context));
+			break;
+		case OBJECT_ID:
+			post.setObjectId(asString(value));
+			break;
+		case APPLICATION:
+			post.setApplication(EntityDeserializer.<Application> as(value, Application.class, context));
+			break;
+		case CREATED_TIME:
+			post.setCreatedTime(asString(value));
+			break;
+		case UPDATED_TIME:
+			post.setUpdatedTime(asString(value));
+			break;
+		case TARGETING:
+			post.setTargeting(EntityDeserializer.<Targeting> as(value, Targeting.class, context));
+			break;
+		}
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.face4j.facebook.util;
+
+import com.face4j.facebook.entity.Education;
+import com.face4j.facebook.entity.GenericEntity;
+import com.face4j.facebook.entity.Hometown;
+import com.face4j.facebook.entity.Language;
+import com.face4j.facebook.entity.Location;
+import com.face4j.facebook.entity.User;
+import com.face4j.facebook.entity.VideoUploadLimit;
+import com.face4j.facebook.entity.Work;
+import com.face4j.facebook.entity.connection.Albums;
+import com.face4j.facebook.entity.connection.Friends;
+import com.face4j.facebook.entity.connection.Likes;
+import com.face4j.facebook.entity.connection.Photos;
+import com.face4j.facebook.enums.UserField;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonElement;
+
+/**
+ * Reads a {@link User} without reflection, see {@link EntityDeserializer}
+ */
+class UserDeserializer extends EntityDeserializer<User, UserField> {
+
+	UserDeserializer() {
+		super(UserField.class);
+	}
+
+	@Override
+	User newInstance() {
+		// the id is set from the json like every other field
+		return new User(null);
+	}
+
+	@Override
+	void set(User user, UserField field, JsonElement value, JsonDeserializationContext context) {
+		switch (field) {
+		case ID:
+			user.setId(asString(value));
+			break;
+		case FIRST_NAME:
+			user.setFirstName(asString(value));
+			break;
+		case MIDDLE_NAME:
+			user.setMiddleName(asString(value));
+			break;
+		case LAST_NAME:
+			user.setLastName(asString(value));
+			break;
+		case NAME:
+			user.setName(asString(value));
+			break;
+		case GENDER:
+			user.setGender(asString(value));
+			break;
+		case LOCALE:
+			user.setLocale(asString(value));
+			break;
+		case LANGUAGES:
+			user.setLanguages(EntityDeserializer.<Language[]> as(value, Language[].class, context));
+			break;
+		case LINK:
+			user.setLink(asString(value));
+			break;
+		case USERNAME:
+			user.setUsername(asString(value));
+			break;
+		case THIRD_PARTY_ID:
+			user.setThirdPartyId(asString(value));
+			break;
+		case TIMEZONE:
+			user.setTimezone(asString(value));
+			break;
+		case UPDATED_TIME:
+			user.setUpdatedTime(asString(value));
+			break;
+		case VERIFIED:
+			user.setVerified(asBoolean(value));
+			break;
+		case BIO:
+			user.setBio(asString(value));
+			break;
+		case INTERESTED_IN:
+			user.setInterestedIn(EntityDeserializer.<String[]> as(value, String[].class, context));
+			break;
+		case LOCATION:
+			user.setLocation(EntityDeserializer.<Location> as(value, Location.class, context));
+			break;
+		case POLITICAL:
+			user.setPolitical(asString(value));
+			break;
+		case QUOTES:
+			user.setQuotes(asString(value));
+			break;
+		case RELATIONSHIP_STATUS:
+			user.setRelationshipStatus(asString(value));
+			break;
+		case RELIGION:
+			user.setReligion(asString(value));
+			break;
+		case SIGNIFICANT_OTHER:
+			user.setSignificantOther(EntityDeserializer.<GenericEntity> as(value, GenericEntity.class, context));
+			break;
+		case VIDEO_UPLOAD_LIMITS:
+			user.setVideoUploadLimits(EntityDeserializer.<VideoUploadLimit> as(value, VideoUploadLimit.class, context));
+			break;
+		case BIRTHDAY:
+			user.setBirthday(asString(value));
+			break;
+		case WORK:
+			user.setWork(EntityDeserializer.<Work[]> as(value, Work[].class, context));
+			break;
+		case EDUCATION:
+			user.setEducation(EntityDeserializer.<Education[]> as(value, Education[].class, context));
+			break;
+		case EMAIL:
+			user.setEmail(asString(value));
+			break;
+		case WEBSITE:
+			user.setWebsite(asString(value));
+			break;
+		case HOMETOWN:
+			user.setHometown(EntityDeserializer.<Hometown> as(value, Hometown.class, context));
+			break;
+		case FRIENDS:
+			user.setFriends(EntityDeserializer.<Friends> as(value, Friends.class, context));
+			break;
+		case LIKES:
+			user.setLikes(EntityDeserializer.<Likes> as(value, Likes.class, context));
+			break;
+		case PHOTOS:
+			user.setPhotos(EntityDeserializer.<Photos> as(value, Photos.class, context));
+			break;
+		case ALBUMS:
+			user.setAlbums(EntityDeserializer.<Albums> as(value, Albums.class, context));
+			break;
+		}
+	}
+
+}